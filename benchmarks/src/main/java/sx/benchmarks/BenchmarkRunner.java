@@ -0,0 +1,28 @@
+package sx.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+
+public class BenchmarkRunner
+{
+
+    /*
+        Run all the benchmarks with the GC profiler, which reports the allocation rate
+        of each path finding algorithm together with throughput and average latency.
+        An optional regular expression restricts the benchmarks to run.
+    */
+    public static void main (String[] args) throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "sx.benchmarks.*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+}
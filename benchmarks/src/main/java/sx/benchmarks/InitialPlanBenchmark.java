@@ -0,0 +1,61 @@
+package sx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import sx.Vec2i;
+import sx.pathfind.PathFinder;
+
+import java.util.concurrent.TimeUnit;
+
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InitialPlanBenchmark
+{
+
+    /*
+        Benchmark of the first path computation (including the initialisation of the
+        algorithm) from the source to the goal of a generated map.
+    */
+
+    @Param({"AStar", "DStar", "DenseAStar", "JumpPointSearch", "JumpPointSearchPlus", "HierarchicalPathFinder", "AnytimeAStar",
+            "BidirectionalAStar", "ParallelBidirectionalAStar", "LifelongAStar", "LazyThetaStar"})
+    public String planner;
+
+    @Param({"open", "maze", "cluttered"})
+    public String map;
+
+    @Param({"100", "1000", "4000"})
+    public int size;
+
+    @Param({"42"})
+    public long seed;
+
+    public int[][] grid;
+    public Vec2i source, goal;
+
+
+    @Setup(Level.Trial)
+    public void setup ()
+    {
+        grid = Maps.generate(map, size, seed);
+        source = Maps.source(size);
+        goal = Maps.goal(size);
+    }
+
+
+    @Benchmark
+    public PathFinder initialPlan ()
+    {
+        // NOTE: The initial plan never modifies the map, hence it can be shared
+        // NOTE: The path finder is returned instead of its path, since getPath may unpack a packed path
+        PathFinder pathFinder = Planners.create(planner, source, goal, grid);
+        pathFinder.computeStartingPath();
+        return pathFinder;
+    }
+
+}
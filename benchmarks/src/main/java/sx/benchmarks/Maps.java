@@ -0,0 +1,160 @@
+package sx.benchmarks;
+
+import sx.Vec2i;
+import sx.pathfind.DenseAStar;
+
+import java.util.Arrays;
+import java.util.Random;
+
+
+
+public class Maps
+{
+
+    /*
+        Generator of reproducible grid maps used by the benchmarks.
+        The same kind, size and seed always produce the same map, where the source
+        (close to the top left corner) and the goal (close to the bottom right corner)
+        are free and connected.
+
+        The kinds of map are:
+            - open: a map almost free of obstacles (1% of cells)
+            - cluttered: a map with 25% of cells occupied by random obstacles
+            - maze: a maze with corridors of one cell, where 5% of the walls are removed to
+              create loops (otherwise any obstacle on the path would disconnect the goal)
+    */
+
+
+    public static int[][] generate (String kind, int size, long seed)
+    {
+        switch (kind)
+        {
+            case "open":
+                return random(size, 0.01, seed);
+            case "cluttered":
+                return random(size, 0.25, seed);
+            case "maze":
+                return maze(size, seed);
+            default:
+                throw new IllegalArgumentException("Unknown map kind " + kind);
+        }
+    }
+
+
+    /* Starting position of the robot on the generated maps */
+    public static Vec2i source (int size)
+    {
+        return new Vec2i(1, 1);
+    }
+
+
+    /* Goal position on the generated maps */
+    public static Vec2i goal (int size)
+    {
+        // The last odd position, so that it is a corridor of the maze
+        int last = (size - 2) % 2 == 1 ? size - 2 : size - 3;
+        return new Vec2i(last, last);
+    }
+
+
+    /* Random obstacles with the given density (the seed is moved forward until the goal is reachable) */
+    public static int[][] random (int size, double density, long seed)
+    {
+        while (true)
+        {
+            Random random = new Random(seed++);
+            int[][] grid = new int[size][size];
+            for (int[] row : grid)
+                for (int j = 0; j < size; j++)
+                    row[j] = random.nextDouble() < density ? 1 : 0;
+
+            Vec2i source = source(size), goal = goal(size);
+            grid[source.x][source.y] = 0;
+            grid[goal.x][goal.y] = 0;
+
+            if (connected(grid, source, goal))
+                return grid;
+        }
+    }
+
+
+    /* Maze generated with an iterative recursive backtracker on odd positions */
+    public static int[][] maze (int size, long seed)
+    {
+        Random random = new Random(seed);
+        int[][] grid = new int[size][size];
+        for (int[] row : grid)
+            Arrays.fill(row, 1);
+
+        int cells = (size - 1) / 2;
+        int[] stack = new int[cells * cells];
+        boolean[] visited = new boolean[cells * cells];
+        int[][] moves = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        int[] order = {0, 1, 2, 3};
+
+        int top = 0;
+        stack[top++] = 0;
+        visited[0] = true;
+        grid[1][1] = 0;
+
+        while (top > 0)
+        {
+            int cell = stack[top - 1];
+            int cx = cell / cells, cy = cell % cells;
+
+            // Shuffle the directions
+            for (int i = 3; i > 0; i--)
+            {
+                int j = random.nextInt(i + 1);
+                int tmp = order[i]; order[i] = order[j]; order[j] = tmp;
+            }
+
+            boolean moved = false;
+            for (int k : order)
+            {
+                int nx = cx + moves[k][0], ny = cy + moves[k][1];
+                if (nx < 0 || ny < 0 || nx >= cells || ny >= cells || visited[nx * cells + ny])
+                    continue;
+
+                // Remove the wall between the two cells
+                visited[nx * cells + ny] = true;
+                grid[2 * cx + 1 + moves[k][0]][2 * cy + 1 + moves[k][1]] = 0;
+                grid[2 * nx + 1][2 * ny + 1] = 0;
+                stack[top++] = nx * cells + ny;
+                moved = true;
+                break;
+            }
+            if (!moved)
+                top--;
+        }
+
+        // Remove some walls between corridors to create loops
+        for (int x = 1; x < size - 1; x++)
+            for (int y = 1; y < size - 1; y++)
+                if (grid[x][y] == 1 && (x + y) % 2 == 1 && random.nextDouble() < 0.05)
+                    grid[x][y] = 0;
+
+        return grid;
+    }
+
+
+    /* Check if the goal is reachable from the source */
+    public static boolean connected (int[][] grid, Vec2i source, Vec2i goal)
+    {
+        DenseAStar astar = new DenseAStar(source, goal, grid);
+        astar.search();
+        return astar.seen[goal.x * grid[0].length + goal.y] == astar.generation
+                && astar.cost[goal.x * grid[0].length + goal.y] != Float.POSITIVE_INFINITY;
+    }
+
+
+    /* Deep copy of a map */
+    public static int[][] copy (int[][] grid)
+    {
+        int[][] copy = new int[grid.length][];
+        for (int i = 0; i < grid.length; i++)
+            copy[i] = grid[i].clone();
+        return copy;
+    }
+
+}
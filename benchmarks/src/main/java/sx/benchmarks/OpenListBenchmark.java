@@ -0,0 +1,184 @@
+package sx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import sx.Vec2i;
+import sx.pathfind.IndexedHeap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenListBenchmark
+{
+
+    /*
+        Benchmark of the open list used by D* Lite.
+
+        The same random sequence of operations (insertions, key updates, removals and
+        pops) is replayed on:
+            - a PriorityQueue of nodes plus a HashMap of inconsistent positions, as previously
+              used by DStar, where updating or removing a node is a linear scan;
+            - the IndexedHeap currently used by DStar.
+
+        The sequence mimics DStar.updateVertex and DStar.backwardPathComputation: the open list
+        is first filled up to the required size, then every iteration updates, removes or pops
+        a random inconsistent position.
+    */
+
+    @Param({"1000", "10000", "50000"})
+    public int openSize;
+
+    @Param({"20000"})
+    public int operations;
+
+    @Param({"42"})
+    public long seed;
+
+    public int cols = 1000;
+    public int[] ops;                           // The operations encoded as triples (operation, cell, key)
+
+
+    /* A node of the PriorityQueue previously used by DStar (equal to another on the same position) */
+    public static class LegacyNode implements Comparable<LegacyNode>
+    {
+        public float k1, k2;
+        public Vec2i position;
+
+        public LegacyNode (float k1, float k2, Vec2i position)
+        {
+            this.k1 = k1;
+            this.k2 = k2;
+            this.position = position;
+        }
+
+        @Override
+        public int compareTo (LegacyNode other)
+        {
+            if (this.k1 == other.k1)
+                return Float.compare(this.k2, other.k2);
+            return this.k1 < other.k1 ? -1 : 1;
+        }
+
+        @Override
+        public boolean equals (Object other)
+        {
+            return other instanceof LegacyNode && position.equals(((LegacyNode) other).position);
+        }
+
+        @Override
+        public int hashCode ()
+        {
+            return position.hashCode();
+        }
+    }
+
+
+    /*
+        Generate the sequence of operations.
+        Operations are: 0 put (insert or update), 1 remove, 2 pop.
+    */
+    @Setup(Level.Trial)
+    public void setup ()
+    {
+        Random random = new Random(seed);
+        int nCells = cols * cols;
+        int total = openSize + operations;
+        ops = new int[total * 3];
+
+        // Cells are drawn from a limited pool so that updates of queued cells are frequent
+        int pool = Math.min(nCells, openSize * 2);
+        int[] cells = new int[pool];
+        for (int i = 0; i < pool; i++)
+            cells[i] = random.nextInt(nCells);
+
+        for (int i = 0; i < total; i++)
+        {
+            int op;
+            if (i < openSize)
+                op = 0;
+            else
+            {
+                int r = random.nextInt(10);
+                op = r < 6 ? 0 : (r < 8 ? 1 : 2);
+            }
+            ops[3 * i] = op;
+            ops[3 * i + 1] = cells[random.nextInt(pool)];
+            ops[3 * i + 2] = random.nextInt(100000);
+        }
+    }
+
+
+    /* Replay the operations on the PriorityQueue and HashMap used by the previous DStar version */
+    @Benchmark
+    public long priorityQueue ()
+    {
+        PriorityQueue<LegacyNode> heap = new PriorityQueue<>();
+        Map<Vec2i, LegacyNode> inconsistents = new HashMap<>();
+        long checksum = 0;
+
+        for (int i = 0; i < ops.length; i += 3)
+        {
+            Vec2i position = new Vec2i(ops[i + 1] / cols, ops[i + 1] % cols);
+            float key = ops[i + 2];
+
+            if (ops[i] == 0)
+            {
+                LegacyNode updatedNode = new LegacyNode(key, key, position);
+                LegacyNode node = inconsistents.put(position, updatedNode);
+                if (node != null)
+                    heap.remove(node);
+                heap.add(updatedNode);
+            }
+            else if (ops[i] == 1)
+            {
+                LegacyNode node = inconsistents.remove(position);
+                if (node != null)
+                    heap.remove(node);
+            }
+            else if (heap.peek() != null)
+            {
+                LegacyNode node = heap.poll();
+                inconsistents.remove(node.position);
+                checksum += (long) node.k1;
+            }
+        }
+        return checksum;
+    }
+
+
+    /* Replay the operations on the IndexedHeap */
+    @Benchmark
+    public long indexedHeap ()
+    {
+        IndexedHeap heap = new IndexedHeap(cols * cols);
+        long checksum = 0;
+
+        for (int i = 0; i < ops.length; i += 3)
+        {
+            int cell = ops[i + 1];
+            float key = ops[i + 2];
+
+            if (ops[i] == 0)
+                heap.put(cell, key, key);
+            else if (ops[i] == 1)
+                heap.remove(cell);
+            else if (!heap.isEmpty())
+            {
+                checksum += (long) heap.peekK1();
+                heap.pop();
+            }
+        }
+        return checksum;
+    }
+
+}
@@ -0,0 +1,44 @@
+package sx.benchmarks;
+
+import sx.GridMap;
+import sx.Vec2i;
+import sx.pathfind.*;
+
+
+
+public class Planners
+{
+
+    /* Factory of the benchmarked path finding algorithms given their name */
+    public static PathFinder create (String name, Vec2i source, Vec2i goal, int[][] slam)
+    {
+        switch (name)
+        {
+            case "AStar":
+                return new AStar(source, goal, slam);
+            case "DenseAStar":
+                return new DenseAStar(source, goal, slam);
+            case "DStar":
+                return new DStar(source, goal, slam);
+            case "JumpPointSearch":
+                return new JumpPointSearch(source, goal, slam);
+            case "JumpPointSearchPlus":
+                return new JumpPointSearch(source, goal, slam, true);
+            case "AnytimeAStar":
+                return new AnytimeAStar(source, goal, slam);
+            case "BidirectionalAStar":
+                return new BidirectionalAStar(source, goal, slam);
+            case "ParallelBidirectionalAStar":
+                return new BidirectionalAStar(source, goal, new GridMap(slam), true);
+            case "LifelongAStar":
+                return new LifelongAStar(source, goal, slam);
+            case "LazyThetaStar":
+                return new LazyThetaStar(source, goal, slam);
+            case "HierarchicalPathFinder":
+                return new HierarchicalPathFinder(source, goal, slam);
+            default:
+                throw new IllegalArgumentException("Unknown path finder " + name);
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package sx.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sx.Vec2i;
+import sx.pathfind.CellChange;
+import sx.pathfind.PathFinder;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplanBenchmark
+{
+
+    /*
+        Benchmark of a new path computation after k obstacles have been discovered
+        along the current path.
+
+        Before each invocation, a fresh algorithm computes the starting path on a copy
+        of the map, and k positions of its path are picked with a seeded random generator.
+        Only the SLAM update and the new path computation are measured.
+    */
+
+    @Param({"AStar", "DStar", "DenseAStar", "JumpPointSearch", "JumpPointSearchPlus", "HierarchicalPathFinder", "AnytimeAStar",
+            "BidirectionalAStar", "ParallelBidirectionalAStar", "LifelongAStar", "LazyThetaStar"})
+    public String planner;
+
+    @Param({"open", "maze", "cluttered"})
+    public String map;
+
+    @Param({"100", "1000", "4000"})
+    public int size;
+
+    @Param({"1", "10", "50"})
+    public int obstacles;
+
+    @Param({"42"})
+    public long seed;
+
+    public int[][] grid;
+    public Vec2i source, goal;
+    public Random random;
+
+    public PathFinder pathFinder;
+    public List<CellChange> changes;
+
+
+    @Setup(Level.Trial)
+    public void setupTrial ()
+    {
+        grid = Maps.generate(map, size, seed);
+        source = Maps.source(size);
+        goal = Maps.goal(size);
+        random = new Random(seed);
+    }
+
+
+    @Setup(Level.Invocation)
+    public void setupInvocation ()
+    {
+        pathFinder = Planners.create(planner, source, goal, Maps.copy(grid));
+        pathFinder.computeStartingPath();
+
+        // Pick the obstacles on the current path (excluding source and goal)
+        LinkedList<Vec2i> path = pathFinder.getPath();
+        List<Vec2i> positions = new ArrayList<>(path);
+        changes = new ArrayList<>(obstacles);
+        for (int i = 0; i < obstacles && positions.size() > 2; i++)
+        {
+            Vec2i position = positions.remove(1 + random.nextInt(positions.size() - 2));
+            changes.add(new CellChange(position, 1));
+        }
+    }
+
+
+    @Benchmark
+    public void replan (Blackhole blackhole)
+    {
+        pathFinder.updateSlam(changes);
+        try {
+            pathFinder.computePath();
+            blackhole.consume(pathFinder);
+        } catch (RuntimeException ex) {
+            // The new obstacles disconnected the goal
+            blackhole.consume(ex);
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+package sx;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+
+
+public class FloatPath
+{
+
+    /*
+        An instance of this class represents a path of spatial coordinates, whose positions are
+        packed into a single array (x0, y0, x1, y1, ...) instead of a list of Vec2f (see IntPath).
+
+        The positions can be accessed by index in O(1), the cursor can be moved along the path,
+        and read-only views sharing the same array can be created in O(1).
+
+        NOTE: A view shares the array of the path, hence it sees the positions appended to the
+        path only if they are inside its range.
+    */
+
+    private float[] coords;               // The coordinates of the positions (x0, y0, x1, y1, ...)
+    private int start;                  // The index of the first position of the path (i.e., the cursor)
+    private int end;                    // The index after the last position of the path
+    private final boolean readOnly;     // True if the path is a view that can not be modified
+
+
+    public FloatPath ()
+    {
+        this(16);
+    }
+
+
+    public FloatPath (int capacity)
+    {
+        this(new float[2 * Math.max(capacity, 1)], 0, 0, false);
+    }
+
+
+    private FloatPath (float[] coords, int start, int end, boolean readOnly)
+    {
+        this.coords = coords;
+        this.start = start;
+        this.end = end;
+        this.readOnly = readOnly;
+    }
+
+
+    /* Pack a list of positions */
+    public static FloatPath of (List<Vec2f> positions)
+    {
+        FloatPath path = new FloatPath(positions.size());
+        for (Vec2f position : positions)
+            path.add(position.x, position.y);
+        return path;
+    }
+
+
+    /* The number of positions of the path */
+    public int size ()
+    {
+        return end - start;
+    }
+
+
+    public boolean isEmpty ()
+    {
+        return end == start;
+    }
+
+
+    public float x (int i)
+    {
+        return coords[2 * (start + i)];
+    }
+
+
+    public float y (int i)
+    {
+        return coords[2 * (start + i) + 1];
+    }
+
+
+    /* The i-th position of the path (a new Vec2f is allocated) */
+    public Vec2f get (int i)
+    {
+        return new Vec2f(x(i), y(i));
+    }
+
+
+    public Vec2f getFirst ()
+    {
+        return get(0);
+    }
+
+
+    public Vec2f getLast ()
+    {
+        return get(size() - 1);
+    }
+
+
+    /* Append a position at the end of the path */
+    public void add (float x, float y)
+    {
+        checkWritable();
+        if (2 * end == coords.length)
+            coords = Arrays.copyOf(coords, coords.length * 2);
+        coords[2 * end] = x;
+        coords[2 * end + 1] = y;
+        end++;
+    }
+
+
+    /* Reverse the order of the positions (e.g., after a backward reconstruction from the goal) */
+    public void reverse ()
+    {
+        checkWritable();
+        for (int i = 2 * start, j = 2 * (end - 1); i < j; i += 2, j -= 2)
+        {
+            float x = coords[i], y = coords[i + 1];
+            coords[i] = coords[j];
+            coords[i + 1] = coords[j + 1];
+            coords[j] = x;
+            coords[j + 1] = y;
+        }
+    }
+
+
+    /* Move the cursor to the next position (i.e., the first position is dropped) */
+    public void advance ()
+    {
+        if (start < end)
+            start++;
+    }
+
+
+    /* A read-only view of the positions from index from (inclusive) to index to (exclusive) */
+    public FloatPath view (int from, int to)
+    {
+        if (from < 0 || to > size() || from > to)
+            throw new IndexOutOfBoundsException("View [" + from + ", " + to + ") of a path of " + size() + " positions");
+        return new FloatPath(coords, start + from, start + to, true);
+    }
+
+
+    /* A read-only view of the whole path */
+    public FloatPath view ()
+    {
+        return view(0, size());
+    }
+
+
+    /* Unpack the positions into a list */
+    public LinkedList<Vec2f> toLinkedList ()
+    {
+        LinkedList<Vec2f> positions = new LinkedList<>();
+        for (int i = 0; i < size(); i++)
+            positions.add(get(i));
+        return positions;
+    }
+
+
+    private void checkWritable ()
+    {
+        if (readOnly)
+            throw new UnsupportedOperationException("A view of a path can not be modified");
+    }
+
+}
@@ -0,0 +1,136 @@
+package sx;
+
+
+
+public class GridGraph
+{
+
+    /*
+        An instance of this class represents the 8-connected graph of the cells of a grid map,
+        where the cells are identified by their index x * cols + y.
+
+        The neighbours of a cell are returned by writing their indices and the cost to reach
+        them into buffers provided by the caller, so that expanding a cell does not allocate
+        anything. The index offset and the cost of each of the 8 directions are precomputed,
+        and the directions leading outside the grid are excluded through a precomputed mask
+        selected by the borders the cell lays on.
+
+        The directions are sorted as the neighbours were visited by the nested loops on
+        (x - 1 .. x + 1, y - 1 .. y + 1) used so far, hence ties are broken in the same order.
+    */
+
+    public static final int[] DX = {-1, -1, -1, 0, 0, 1, 1, 1};
+    public static final int[] DY = {-1, 0, 1, -1, 1, -1, 0, 1};
+    public static final float[] COSTS = {1.414f, 1.0f, 1.414f, 1.0f, 1.0f, 1.414f, 1.0f, 1.414f};
+
+    public GridMap map;                     // The grid map
+    public int rows, cols;                  // The size of the grid map
+    public int[] offsets;                   // The index offset of each direction
+    public int[] borderMasks;               // The valid directions for each combination of borders
+
+
+    public GridGraph (GridMap map)
+    {
+        this.map = map;
+        this.rows = map.rows;
+        this.cols = map.cols;
+
+        this.offsets = new int[8];
+        for (int d = 0; d < 8; d++)
+            offsets[d] = DX[d] * cols + DY[d];
+
+        // Borders are: 1 first row, 2 last row, 4 first column, 8 last column
+        this.borderMasks = new int[16];
+        for (int borders = 0; borders < 16; borders++)
+        {
+            int mask = 0;
+            for (int d = 0; d < 8; d++)
+            {
+                if ((DX[d] == -1 && (borders & 1) != 0) || (DX[d] == 1 && (borders & 2) != 0) ||
+                        (DY[d] == -1 && (borders & 4) != 0) || (DY[d] == 1 && (borders & 8) != 0))
+                    continue;
+                mask |= 1 << d;
+            }
+            borderMasks[borders] = mask;
+        }
+    }
+
+
+    public int index (int x, int y)
+    {
+        return x * cols + y;
+    }
+
+
+    /* The mask of the directions that from a position stay inside the grid */
+    public int directions (int x, int y)
+    {
+        int borders = (x == 0 ? 1 : 0) | (x == rows - 1 ? 2 : 0) | (y == 0 ? 4 : 0) | (y == cols - 1 ? 8 : 0);
+        return borderMasks[borders];
+    }
+
+
+    /*
+        Write the free neighbours of a cell and the cost to reach them into the buffers
+        (of at least 8 elements), and return their number.
+        NOTE: The positions occupied by obstacles and the unknown ones are not returned.
+    */
+    public int expand (int cell, int[] cells, float[] costs)
+    {
+        int x = cell / cols, y = cell - x * cols;
+        int mask = directions(x, y);
+        int n = 0;
+        for (int d = 0; d < 8; d++)
+        {
+            if ((mask & (1 << d)) == 0 || !map.isFree(x + DX[d], y + DY[d]))
+                continue;
+            cells[n] = cell + offsets[d];
+            costs[n] = COSTS[d];
+            n++;
+        }
+        return n;
+    }
+
+
+    /*
+        Write the neighbours of a cell that are not occupied by obstacles (i.e., free or unknown)
+        and the cost to reach them into the buffers (of at least 8 elements), and return their number.
+    */
+    public int expandTraversable (int cell, int[] cells, float[] costs)
+    {
+        int x = cell / cols, y = cell - x * cols;
+        int mask = directions(x, y);
+        int n = 0;
+        for (int d = 0; d < 8; d++)
+        {
+            if ((mask & (1 << d)) == 0 || map.isObstacle(x + DX[d], y + DY[d]))
+                continue;
+            cells[n] = cell + offsets[d];
+            costs[n] = COSTS[d];
+            n++;
+        }
+        return n;
+    }
+
+
+    /*
+        Write all the neighbours of a cell inside the grid and the cost to reach them into
+        the buffers (of at least 8 elements), and return their number.
+    */
+    public int expandAll (int cell, int[] cells, float[] costs)
+    {
+        int x = cell / cols, y = cell - x * cols;
+        int mask = directions(x, y);
+        int n = 0;
+        for (int d = 0; d < 8; d++)
+        {
+            if ((mask & (1 << d)) == 0)
+                continue;
+            cells[n] = cell + offsets[d];
+            costs[n] = COSTS[d];
+            n++;
+        }
+        return n;
+    }
+
+}
@@ -0,0 +1,254 @@
+package sx;
+
+import java.util.Arrays;
+
+
+
+public class GridMap
+{
+
+    /*
+        An instance of this class represents a grid map where each cell is stored with 2 bits
+        instead of an int (i.e., 16 times less memory than an int[][] and no object header per row).
+
+        The usual standard of the repository is kept: -1 unknown, 0 free known, 1 obstacle.
+        The cells are encoded as:
+            00  free
+            01  obstacle
+            10  unknown
+        and packed 32 per long, row after row. Each row starts with a new word, and the unused
+        cells at the end of a row are always free, so that word-level queries do not need any
+        check on the last column.
+
+        NOTE: Any positive value set into the grid is stored as an obstacle, any negative value
+        is stored as unknown.
+    */
+
+    public static final int FREE = 0, OBSTACLE = 1, UNKNOWN = -1;
+
+    private static final long LOW_BITS = 0x5555555555555555L;      // The lower bit of each cell into a word
+
+    public int rows, cols;                  // The size of the grid map
+    public int wordsPerRow;                 // The number of words storing a row
+    public long[] words;                    // The packed cells
+
+
+    public GridMap (int rows, int cols)
+    {
+        this.rows = rows;
+        this.cols = cols;
+        this.wordsPerRow = (cols + 31) >>> 5;
+        this.words = new long[rows * wordsPerRow];
+    }
+
+
+    /* Build a grid map with the same content of a matrix */
+    public GridMap (int[][] grid)
+    {
+        this(grid.length, grid[0].length);
+        for (int x = 0; x < rows; x++)
+            for (int y = 0; y < cols; y++)
+                set(x, y, grid[x][y]);
+    }
+
+
+    /* A copy of the grid map */
+    public GridMap copy ()
+    {
+        GridMap copy = new GridMap(rows, cols);
+        System.arraycopy(words, 0, copy.words, 0, words.length);
+        return copy;
+    }
+
+
+    /* The content of the grid map as a matrix */
+    public int[][] toArray ()
+    {
+        int[][] grid = new int[rows][cols];
+        for (int x = 0; x < rows; x++)
+            for (int y = 0; y < cols; y++)
+                grid[x][y] = get(x, y);
+        return grid;
+    }
+
+
+    /* Set all the cells of the grid map to the same value */
+    public void fill (int value)
+    {
+        long code = encode(value);
+        long word = 0L;
+        for (int k = 0; k < 32; k++)
+            word |= code << (k << 1);
+
+        for (int x = 0; x < rows; x++)
+        {
+            int base = x * wordsPerRow;
+            Arrays.fill(words, base, base + wordsPerRow, word);
+            words[base + wordsPerRow - 1] &= validMask(wordsPerRow - 1);
+        }
+    }
+
+
+    public boolean contains (int x, int y)
+    {
+        return x >= 0 && x < rows && y >= 0 && y < cols;
+    }
+
+
+    public int get (int x, int y)
+    {
+        long code = (words[x * wordsPerRow + (y >>> 5)] >>> ((y & 31) << 1)) & 3L;
+        return code == 0L ? FREE : (code == 1L ? OBSTACLE : UNKNOWN);
+    }
+
+
+    public void set (int x, int y, int value)
+    {
+        int i = x * wordsPerRow + (y >>> 5);
+        int shift = (y & 31) << 1;
+        words[i] = (words[i] & ~(3L << shift)) | (encode(value) << shift);
+    }
+
+
+    public boolean isFree (int x, int y)
+    {
+        return ((words[x * wordsPerRow + (y >>> 5)] >>> ((y & 31) << 1)) & 3L) == 0L;
+    }
+
+
+    public boolean isObstacle (int x, int y)
+    {
+        return ((words[x * wordsPerRow + (y >>> 5)] >>> ((y & 31) << 1)) & 1L) != 0L;
+    }
+
+
+    public boolean isUnknown (int x, int y)
+    {
+        return ((words[x * wordsPerRow + (y >>> 5)] >>> ((y & 31) << 1)) & 2L) != 0L;
+    }
+
+
+    /*
+        Check if at least one of the 8 positions surrounding a position is unknown.
+        Each row is checked at once by masking the 3 cells around the column.
+    */
+    public boolean anyUnknownNeighbour (int x, int y)
+    {
+        for (int i = Math.max(x - 1, 0); i < Math.min(x + 2, rows); i++)
+        {
+            // Unknown bits of columns y - 1, y, y + 1 (the position itself is excluded)
+            long mask = (i == x) ? 0b100010L : 0b101010L;
+            if ((window(i, y - 1) & mask) != 0L)
+                return true;
+        }
+        return false;
+    }
+
+
+    /*
+        Check if at least one of the 4 positions vertically or horizontally close
+        to a position is unknown.
+    */
+    public boolean anyUnknownCross (int x, int y)
+    {
+        if ((window(x, y - 1) & 0b100010L) != 0L)
+            return true;
+        return (x > 0 && isUnknown(x - 1, y)) || (x < rows - 1 && isUnknown(x + 1, y));
+    }
+
+
+    /*
+        The free cells of 64 consecutive columns of a row: bit k is set if the cell
+        (x, 64 * word + k) is free. Columns outside the grid are never set.
+    */
+    public long freeBits (int x, int word)
+    {
+        long lo = rawWord(x, word << 1), hi = rawWord(x, (word << 1) + 1);
+        long bits = compact(~(lo | (lo >>> 1)) & LOW_BITS) | (compact(~(hi | (hi >>> 1)) & LOW_BITS) << 32);
+        return bits & columnsMask(word);
+    }
+
+
+    /* The unknown cells of 64 consecutive columns of a row (same layout of freeBits) */
+    public long unknownBits (int x, int word)
+    {
+        long lo = rawWord(x, word << 1), hi = rawWord(x, (word << 1) + 1);
+        return compact((lo >>> 1) & LOW_BITS) | (compact((hi >>> 1) & LOW_BITS) << 32);
+    }
+
+
+    /* The obstacle cells of 64 consecutive columns of a row (same layout of freeBits) */
+    public long obstacleBits (int x, int word)
+    {
+        long lo = rawWord(x, word << 1), hi = rawWord(x, (word << 1) + 1);
+        return compact(lo & LOW_BITS) | (compact(hi & LOW_BITS) << 32);
+    }
+
+
+    /* The number of 64 bits words returned by freeBits, unknownBits, and obstacleBits for each row */
+    public int bitWordsPerRow ()
+    {
+        return (cols + 63) >>> 6;
+    }
+
+
+    /*
+        The packed cells of a row starting from column y0 (up to 32 cells).
+        Columns before the first one are read as free cells.
+    */
+    private long window (int x, int y0)
+    {
+        int base = x * wordsPerRow;
+        if (y0 < 0)
+            return words[base] << ((-y0) << 1);
+
+        int i = y0 >>> 5, shift = (y0 & 31) << 1;
+        long word = words[base + i] >>> shift;
+        if (shift != 0 && i + 1 < wordsPerRow)
+            word |= words[base + i + 1] << (64 - shift);
+        return word;
+    }
+
+
+    /* A packed word of a row (words after the end of the row are free cells) */
+    private long rawWord (int x, int i)
+    {
+        return i < wordsPerRow ? words[x * wordsPerRow + i] : 0L;
+    }
+
+
+    /* Mask of the valid cells of a packed word of a row */
+    private long validMask (int i)
+    {
+        int valid = cols - (i << 5);
+        return valid >= 32 ? -1L : (1L << (valid << 1)) - 1L;
+    }
+
+
+    /* Mask of the valid columns of a compacted 64 bits word of a row */
+    private long columnsMask (int word)
+    {
+        int valid = cols - (word << 6);
+        return valid >= 64 ? -1L : (1L << valid) - 1L;
+    }
+
+
+    /* Move the even bits of a word into its lower 32 bits */
+    private static long compact (long x)
+    {
+        x &= LOW_BITS;
+        x = (x | (x >>> 1)) & 0x3333333333333333L;
+        x = (x | (x >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x >>> 4)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x >>> 8)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x >>> 16)) & 0x00000000FFFFFFFFL;
+        return x;
+    }
+
+
+    private static long encode (int value)
+    {
+        return value == 0 ? 0L : (value > 0 ? 1L : 2L);
+    }
+
+}
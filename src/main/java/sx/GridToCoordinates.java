@@ -30,4 +30,14 @@ public class GridToCoordinates
         return path;
     }
 
+
+    /* Translate a packed path of cells in a packed path of spatial coordinates */
+    public FloatPath convert (IntPath originalPath)
+    {
+        FloatPath coordinates = new FloatPath(originalPath.size());
+        for (int i = 0; i < originalPath.size(); i++)
+            coordinates.add(originalPath.x(i) * cellSize + (cellSize / 2.0f), originalPath.y(i) * cellSize + (cellSize / 2.0f));
+        return coordinates;
+    }
+
 }
@@ -0,0 +1,172 @@
+package sx;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+
+
+public class IntPath
+{
+
+    /*
+        An instance of this class represents a path on a grid map, whose positions are packed
+        into a single array of coordinates (x0, y0, x1, y1, ...) instead of a list of Vec2i.
+
+        The positions can be accessed by index in O(1). The path has a cursor (the index of its
+        first position into the array) so that the robot can step along it without moving the
+        other positions, and read-only views sharing the same array can be created in O(1).
+
+        NOTE: A view shares the array of the path, hence it sees the positions appended to the
+        path only if they are inside its range.
+    */
+
+    private int[] coords;               // The coordinates of the positions (x0, y0, x1, y1, ...)
+    private int start;                  // The index of the first position of the path (i.e., the cursor)
+    private int end;                    // The index after the last position of the path
+    private final boolean readOnly;     // True if the path is a view that can not be modified
+
+
+    public IntPath ()
+    {
+        this(16);
+    }
+
+
+    public IntPath (int capacity)
+    {
+        this(new int[2 * Math.max(capacity, 1)], 0, 0, false);
+    }
+
+
+    private IntPath (int[] coords, int start, int end, boolean readOnly)
+    {
+        this.coords = coords;
+        this.start = start;
+        this.end = end;
+        this.readOnly = readOnly;
+    }
+
+
+    /* Pack a list of positions */
+    public static IntPath of (List<Vec2i> positions)
+    {
+        IntPath path = new IntPath(positions.size());
+        for (Vec2i position : positions)
+            path.add(position.x, position.y);
+        return path;
+    }
+
+
+    /* The number of positions of the path */
+    public int size ()
+    {
+        return end - start;
+    }
+
+
+    public boolean isEmpty ()
+    {
+        return end == start;
+    }
+
+
+    public int x (int i)
+    {
+        return coords[2 * (start + i)];
+    }
+
+
+    public int y (int i)
+    {
+        return coords[2 * (start + i) + 1];
+    }
+
+
+    /* The i-th position of the path (a new Vec2i is allocated) */
+    public Vec2i get (int i)
+    {
+        return new Vec2i(x(i), y(i));
+    }
+
+
+    public Vec2i getFirst ()
+    {
+        return get(0);
+    }
+
+
+    public Vec2i getLast ()
+    {
+        return get(size() - 1);
+    }
+
+
+    /* Append a position at the end of the path */
+    public void add (int x, int y)
+    {
+        checkWritable();
+        if (2 * end == coords.length)
+            coords = Arrays.copyOf(coords, coords.length * 2);
+        coords[2 * end] = x;
+        coords[2 * end + 1] = y;
+        end++;
+    }
+
+
+    /* Reverse the order of the positions (e.g., after a backward reconstruction from the goal) */
+    public void reverse ()
+    {
+        checkWritable();
+        for (int i = 2 * start, j = 2 * (end - 1); i < j; i += 2, j -= 2)
+        {
+            int x = coords[i], y = coords[i + 1];
+            coords[i] = coords[j];
+            coords[i + 1] = coords[j + 1];
+            coords[j] = x;
+            coords[j + 1] = y;
+        }
+    }
+
+
+    /* Move the cursor to the next position (i.e., the first position is dropped) */
+    public void advance ()
+    {
+        if (start < end)
+            start++;
+    }
+
+
+    /* A read-only view of the positions from index from (inclusive) to index to (exclusive) */
+    public IntPath view (int from, int to)
+    {
+        if (from < 0 || to > size() || from > to)
+            throw new IndexOutOfBoundsException("View [" + from + ", " + to + ") of a path of " + size() + " positions");
+        return new IntPath(coords, start + from, start + to, true);
+    }
+
+
+    /* A read-only view of the whole path */
+    public IntPath view ()
+    {
+        return view(0, size());
+    }
+
+
+    /* Unpack the positions into a list */
+    public LinkedList<Vec2i> toLinkedList ()
+    {
+        LinkedList<Vec2i> positions = new LinkedList<>();
+        for (int i = 0; i < size(); i++)
+            positions.add(get(i));
+        return positions;
+    }
+
+
+    private void checkWritable ()
+    {
+        if (readOnly)
+            throw new UnsupportedOperationException("A view of a path can not be modified");
+    }
+
+}
@@ -1,9 +1,6 @@
 package sx;
 
 
-import java.util.Objects;
-
-
 
 public class Vec2i
 {
@@ -41,7 +38,8 @@ public class Vec2i
     @Override
     public int hashCode ()
     {
-        return Objects.hash(x, y);
+        // Same value of Objects.hash(x, y) without allocating the varargs array
+        return 31 * (31 + x) + y;
     }
 
 
@@ -14,6 +14,7 @@ public class Frontier
     public Envelope box;           // The bounding box containing the frontier
     public List<Vec2i> cells;      // The set of cells that make part of the frontier
     public Vec2i barycenter;       // The frontier barycenter where the robot is supposed to go to visit it
+    public int informationGain;    // The number of unknown cells around the barycenter (see WavefrontFrontierDetector)
 
 
     public Frontier ()
@@ -24,7 +25,7 @@ public class Frontier
     }
 
 
-    public Frontier (Set<Vec2i> cellsSet)
+    public Frontier (Collection<Vec2i> cellsSet)
     {
         this.cells = new ArrayList<>();
         cells.addAll(cellsSet);
@@ -16,8 +16,8 @@ public interface FrontierDetector
         The currently implemented ones are:
             - An instance of this class represents a customized implementation
               of Wavefront Frontier Detection algorithm.
-              Which in enhanced using a QuadTree to a faster detection of the frontiers
-              that should be extended.
+              Which in enhanced keeping track of the changed cells to a faster detection
+              of the frontiers that should be extended.
 
     ================================================================================================================
     */
@@ -0,0 +1,244 @@
+package sx.frontier;
+
+import sx.GridGraph;
+import sx.GridMap;
+import sx.Vec2i;
+import sx.pathfind.DenseHeap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+
+public class FrontierDistanceField
+{
+
+    /*
+        An instance of this class computes with a single Dijkstra the distances from the robot
+        position to every position of the grid map, and ranks the frontiers by the cost of the
+        path to reach them, instead of running an A* for each frontier.
+
+        The robot moves as in AStar (i.e., into free positions, with cost 1 for straight moves
+        and 1.414 for diagonal ones). The target of a frontier is its barycenter if it is free,
+        otherwise the position of the frontier closest to the barycenter. Together with the
+        distance, the first move of the minimum path is propagated from the robot position, so
+        that the robot can head to the chosen frontier without extracting its path.
+
+        The search can be bounded by a maximum distance, and stopped as soon as the k nearest
+        frontiers are reached. The frontiers not reached are not ranked.
+
+        The arrays are allocated once and reset in O(1) through a generation counter (see
+        DenseAStar), hence the field can be computed at every decision without allocations
+        but the returned list.
+    */
+
+    public GridMap slam;                            // The environment as seen by the robot
+    public GridGraph graph;                         // The graph of the grid map used to expand positions
+    public int cols;                                // The number of columns of the grid map
+    public int[] neighbourCells;                    // Buffer of the neighbours of the expanded position
+    public float[] neighbourCosts;                  // Buffer of the costs to reach the neighbours
+
+    public DenseHeap heap;                          // The heap of reached positions to expand
+    public float[] dist;                            // Minimum distance found so far from the robot position to each cell
+    public int[] firstMove;                         // The cell of the first move towards each cell
+    public int[] seen;                              // Generation in which dist and firstMove of a cell were set
+    public int[] settled;                           // Generation in which the distance of a cell became final
+    public int[] targetOf;                          // The first frontier (index + 1) targeting each cell
+    public int[] targetStamp;                       // Generation in which targetOf of a cell was set
+    public int[] nextTarget;                        // The next frontier (index + 1) targeting the same cell of each frontier
+    public int generation;                          // The current computation generation
+    public int root;                                // The cell of the robot position in the last computation
+
+
+    public FrontierDistanceField (int[][] slam)
+    {
+        this(new GridMap(slam));
+    }
+
+
+    public FrontierDistanceField (GridMap slam)
+    {
+        this.slam = slam;
+        this.graph = new GridGraph(slam);
+        this.cols = slam.cols;
+        this.neighbourCells = new int[8];
+        this.neighbourCosts = new float[8];
+
+        int size = slam.rows * cols;
+        this.heap = new DenseHeap(1024);
+        this.dist = new float[size];
+        this.firstMove = new int[size];
+        this.seen = new int[size];
+        this.settled = new int[size];
+        this.targetOf = new int[size];
+        this.targetStamp = new int[size];
+        this.nextTarget = new int[16];
+
+        // Generation 0 is the value of untouched cells
+        this.generation = 0;
+        this.root = -1;
+    }
+
+
+    /* Rank all the reachable frontiers from the nearest to the farthest */
+    public List<RankedFrontier> rank (Vec2i robot, List<Frontier> frontiers)
+    {
+        return rank(robot, frontiers, Integer.MAX_VALUE, Float.POSITIVE_INFINITY);
+    }
+
+
+    /*
+        Rank the k nearest frontiers whose distance from the robot position is not
+        greater than maxDistance, from the nearest to the farthest.
+    */
+    public List<RankedFrontier> rank (Vec2i robot, List<Frontier> frontiers, int k, float maxDistance)
+    {
+        reset();
+        List<RankedFrontier> ranked = new ArrayList<>();
+        if (frontiers.isEmpty() || k <= 0)
+            return ranked;
+
+        // Mark the targets of the frontiers
+        if (nextTarget.length < frontiers.size())
+            nextTarget = new int[frontiers.size()];
+        for (int i = 0; i < frontiers.size(); i++)
+        {
+            int cell = target(frontiers.get(i));
+            if (cell == -1)
+                continue;
+            nextTarget[i] = targetStamp[cell] == generation ? targetOf[cell] : 0;
+            targetOf[cell] = i + 1;
+            targetStamp[cell] = generation;
+        }
+
+        // Moving from an obstacle is not possible
+        root = robot.x * cols + robot.y;
+        if (slam.isObstacle(robot.x, robot.y))
+            return ranked;
+        touch(root);
+        dist[root] = 0.0f;
+        firstMove[root] = root;
+        heap.push(root, 0.0f);
+
+        while (!heap.isEmpty())
+        {
+            float d = heap.peekPriority();
+            int cell = heap.pop();
+
+            // Skip bad paths enqueued before finding a shorter one
+            if (settled[cell] == generation)
+                continue;
+            if (d > maxDistance)
+                break;
+            settled[cell] = generation;
+
+            // Collect the frontiers targeting the position
+            if (targetStamp[cell] == generation)
+            {
+                for (int i = targetOf[cell]; i != 0; i = nextTarget[i - 1])
+                {
+                    ranked.add(new RankedFrontier(frontiers.get(i - 1), toPosition(cell), d, toPosition(firstMove[cell])));
+                    if (ranked.size() == k)
+                        return ranked;
+                }
+            }
+
+            int n = graph.expand(cell, neighbourCells, neighbourCosts);
+            for (int j = 0; j < n; j++)
+            {
+                int neighbour = neighbourCells[j];
+                if (settled[neighbour] == generation)
+                    continue;
+                float ncost = d + neighbourCosts[j];
+                touch(neighbour);
+                if (ncost < dist[neighbour])
+                {
+                    dist[neighbour] = ncost;
+                    firstMove[neighbour] = cell == root ? neighbour : firstMove[cell];
+                    heap.push(neighbour, ncost);
+                }
+            }
+        }
+        return ranked;
+    }
+
+
+    /*
+        The distance of a position from the robot computed by the last ranking (infinite if
+        the position was not reached before the search stopped).
+    */
+    public float distance (int x, int y)
+    {
+        int cell = x * cols + y;
+        return settled[cell] == generation ? dist[cell] : Float.POSITIVE_INFINITY;
+    }
+
+
+    /* The first move towards a position computed by the last ranking (null if the position was not reached) */
+    public Vec2i firstMove (int x, int y)
+    {
+        int cell = x * cols + y;
+        return settled[cell] == generation ? toPosition(firstMove[cell]) : null;
+    }
+
+
+    /* The cell the robot is supposed to go to visit a frontier (-1 if there is none) */
+    public int target (Frontier frontier)
+    {
+        Vec2i barycenter = frontier.barycenter;
+        if (barycenter == null)
+            return -1;
+        if (slam.isFree(barycenter.x, barycenter.y))
+            return barycenter.x * cols + barycenter.y;
+
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+        for (Vec2i cell : frontier.cells)
+        {
+            long dx = cell.x - barycenter.x, dy = cell.y - barycenter.y;
+            if (dx * dx + dy * dy < bestDistance && slam.isFree(cell.x, cell.y))
+            {
+                bestDistance = dx * dx + dy * dy;
+                best = cell.x * cols + cell.y;
+            }
+        }
+        return best;
+    }
+
+
+    /*
+        Prepare a new computation of the field.
+        NOTE: The arrays are not cleared, the generation is just moved forward.
+    */
+    private void reset ()
+    {
+        if (++generation == Integer.MAX_VALUE)
+        {
+            // Stamps overflow (i.e., almost never): clear them once and restart
+            Arrays.fill(seen, 0);
+            Arrays.fill(settled, 0);
+            Arrays.fill(targetStamp, 0);
+            generation = 1;
+        }
+        heap.clear();
+    }
+
+
+    /* Initialise the values of a cell the first time it is met in the current generation */
+    private void touch (int cell)
+    {
+        if (seen[cell] == generation)
+            return;
+        seen[cell] = generation;
+        dist[cell] = Float.POSITIVE_INFINITY;
+        firstMove[cell] = -1;
+    }
+
+
+    private Vec2i toPosition (int cell)
+    {
+        return new Vec2i(cell / cols, cell % cols);
+    }
+
+}
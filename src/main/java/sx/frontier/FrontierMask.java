@@ -0,0 +1,109 @@
+package sx.frontier;
+
+import sx.GridMap;
+
+
+
+public class FrontierMask
+{
+
+    /*
+        An instance of this class represents the bitmap of the frontier cells of a grid map
+        (i.e., free cells with an unknown cell vertically or horizontally close), computed
+        64 cells at a time from the packed free and unknown cells of the grid map.
+
+        For each word of 64 columns, the unknown cells of the row are shifted by one column in
+        both directions (carrying the bit of the close words) and combined with the unknown cells
+        of the rows above and below, then the result is masked by the free cells. The rows are
+        streamed keeping the unknown cells of three rows, hence each word of the grid map is
+        unpacked once.
+
+        The bitmap has the layout of GridMap.freeBits: bit k of word w of row x is set if the
+        cell (x, 64 * w + k) is a frontier cell.
+    */
+
+    public GridMap slam;                            // The environment as seen by the robot
+    public int rows, cols;                          // The size of the grid map
+    public int wordsPerRow;                         // The number of words of a row of the bitmap
+    public long[] bits;                             // The bitmap of the frontier cells
+
+
+    public FrontierMask (GridMap slam)
+    {
+        this.slam = slam;
+        this.rows = slam.rows;
+        this.cols = slam.cols;
+        this.wordsPerRow = slam.bitWordsPerRow();
+        this.bits = new long[rows * wordsPerRow];
+    }
+
+
+    /* Compute the bitmap of the whole grid map */
+    public void compute ()
+    {
+        computeRows(0, rows);
+    }
+
+
+    /*
+        Compute the bitmap of the rows from x0 (inclusive) to x1 (exclusive).
+        Disjoint bands of rows can be computed by different threads.
+    */
+    public void computeRows (int x0, int x1)
+    {
+        long[] above = new long[wordsPerRow], row = new long[wordsPerRow], below = new long[wordsPerRow];
+        loadUnknown(x0 - 1, above);
+        loadUnknown(x0, row);
+
+        for (int x = x0; x < x1; x++)
+        {
+            loadUnknown(x + 1, below);
+            int base = x * wordsPerRow;
+            for (int w = 0; w < wordsPerRow; w++)
+            {
+                long u = row[w];
+                long left = (u << 1) | (w > 0 ? row[w - 1] >>> 63 : 0L);
+                long right = (u >>> 1) | (w + 1 < wordsPerRow ? row[w + 1] << 63 : 0L);
+                bits[base + w] = slam.freeBits(x, w) & (left | right | above[w] | below[w]);
+            }
+
+            // Move the window of rows down
+            long[] tmp = above;
+            above = row;
+            row = below;
+            below = tmp;
+        }
+    }
+
+
+    /* The unknown cells of a row (none if the row is outside the grid) */
+    private void loadUnknown (int x, long[] buffer)
+    {
+        for (int w = 0; w < wordsPerRow; w++)
+            buffer[w] = (x >= 0 && x < rows) ? slam.unknownBits(x, w) : 0L;
+    }
+
+
+    public boolean get (int x, int y)
+    {
+        return (bits[x * wordsPerRow + (y >>> 6)] & (1L << (y & 63))) != 0L;
+    }
+
+
+    /* The frontier cells of 64 consecutive columns of a row */
+    public long word (int x, int word)
+    {
+        return bits[x * wordsPerRow + word];
+    }
+
+
+    /* The number of frontier cells */
+    public int count ()
+    {
+        int count = 0;
+        for (long word : bits)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+}
@@ -0,0 +1,280 @@
+package sx.frontier;
+
+import sx.GridGraph;
+import sx.GridMap;
+import sx.Vec2i;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+
+
+public class ParallelFrontierLabeller
+{
+
+    /*
+        An instance of this class detects all the frontiers of a grid map at once (e.g., after
+        a map merge or a relocalization), splitting the grid into square tiles labelled in parallel.
+
+        The frontier cells (i.e., free cells with an unknown cell vertically or horizontally close)
+        are first marked into a bitmap (see FrontierMask), computed in parallel by bands of rows.
+        The frontier cells of each tile are grouped by a Breath First Search that does not leave the
+        tile, and each group is labelled by the index of its first cell, so that the tiles do not need
+        to agree on labels. Then, the groups of close cells on the borders of the tiles are merged with
+        a union-find, and the cells are collected by the root of their group into a single array
+        of cell indices (x * cols + y), counting the cells of each frontier before placing them, so
+        that no positions are allocated until the cells of a frontier are asked.
+
+        The frontier cells are connected as in WavefrontFrontierDetector (i.e., 8-connected), but all
+        of them are returned, even if they can not be reached from the robot position.
+
+        NOTE: The grid map is only read while the tiles are labelled, hence it should not be modified
+        by other threads in the meanwhile.
+    */
+
+    public GridMap slam;                            // The environment as seen by the robot
+    public int rows, cols;                          // The size of the grid map
+    public int tileSize;                            // The size of the side of the tiles
+    public int tileRows, tileCols;                  // The number of rows and columns of tiles
+    public ForkJoinPool pool;                       // The pool of threads labelling the tiles
+
+    public FrontierMask mask;                       // The bitmap of the frontier cells
+    public int[] labels;                            // The label of each frontier cell, then the number of its frontier
+                                                    // (meaningless for the other cells)
+    public int[] parent;                            // The parent of each label into the union-find
+
+    public int frontierCount;                       // The number of frontiers detected by the last labelling
+    public int[] frontierCells;                     // The cells (x * cols + y) of the frontiers, grouped by frontier
+    public int[] frontierStarts;                    // The index into frontierCells of the first cell of each frontier
+                                                    // (followed by the number of frontier cells)
+    private final ThreadLocal<int[]> queues;        // The queue of the Breath First Search of each thread
+
+
+    public ParallelFrontierLabeller (GridMap slam, int tileSize, ForkJoinPool pool)
+    {
+        if (tileSize <= 0)
+            throw new IllegalArgumentException("The size of the tiles must be positive");
+        this.slam = slam;
+        this.rows = slam.rows;
+        this.cols = slam.cols;
+        this.tileSize = tileSize;
+        this.tileRows = (rows + tileSize - 1) / tileSize;
+        this.tileCols = (cols + tileSize - 1) / tileSize;
+        this.pool = pool;
+
+        this.mask = new FrontierMask(slam);
+        this.labels = new int[rows * cols];
+        this.parent = new int[rows * cols];
+        this.frontierCount = 0;
+        this.frontierCells = new int[64];
+        this.frontierStarts = new int[64];
+        this.queues = ThreadLocal.withInitial(() -> new int[tileSize * tileSize]);
+    }
+
+
+    public ParallelFrontierLabeller (GridMap slam)
+    {
+        this(slam, 64, ForkJoinPool.commonPool());
+    }
+
+
+    /* True if a cell is a frontier cell (according to the last computed bitmap) */
+    public boolean isFrontier (int x, int y)
+    {
+        return mask.get(x, y);
+    }
+
+
+    /*
+        Detect the frontiers of the whole grid map, and return their number.
+        The cells of frontier f are frontierCells[frontierStarts[f]] ... frontierCells[frontierStarts[f + 1] - 1],
+        in row-major order, and the frontiers are sorted by their first cell.
+    */
+    public int label ()
+    {
+        pool.submit(() -> IntStream.range(0, tileRows).parallel()
+                .forEach(t -> mask.computeRows(t * tileSize, Math.min((t + 1) * tileSize, rows)))).join();
+        pool.submit(() -> IntStream.range(0, tileRows * tileCols).parallel().forEach(this::labelTile)).join();
+        stitch();
+
+        /*
+            Number the frontiers and count their cells. The root of a group is its first cell
+            in row-major order (i.e., the smallest label is kept), hence it is met before the other
+            cells of the group, and it keeps the number of the frontier into its label.
+            The label of each cell is replaced by the number of its frontier.
+        */
+        frontierCount = 0;
+        int total = 0;
+        for (int x = 0; x < rows; x++)
+            for (int w = 0; w < mask.wordsPerRow; w++)
+                for (long bits = mask.word(x, w); bits != 0L; bits &= bits - 1)
+                {
+                    int cell = x * cols + (w << 6) + Long.numberOfTrailingZeros(bits);
+                    int root = find(labels[cell]);
+                    int frontier;
+                    if (root == cell)
+                    {
+                        frontier = frontierCount++;
+                        if (frontierCount + 1 >= frontierStarts.length)
+                            frontierStarts = Arrays.copyOf(frontierStarts, frontierStarts.length * 2);
+                        frontierStarts[frontier] = 0;
+                    }
+                    else
+                        frontier = labels[root];
+                    labels[cell] = frontier;
+                    frontierStarts[frontier]++;
+                    total++;
+                }
+
+        // Turn the counts into the index of the first cell of each frontier
+        int start = 0;
+        for (int f = 0; f < frontierCount; f++)
+        {
+            int count = frontierStarts[f];
+            frontierStarts[f] = start;
+            start += count;
+        }
+        frontierStarts[frontierCount] = total;
+
+        // Place the cells, moving the start of each frontier forward, and move the starts back
+        if (frontierCells.length < total)
+            frontierCells = new int[Math.max(total, frontierCells.length * 2)];
+        for (int x = 0; x < rows; x++)
+            for (int w = 0; w < mask.wordsPerRow; w++)
+                for (long bits = mask.word(x, w); bits != 0L; bits &= bits - 1)
+                {
+                    int cell = x * cols + (w << 6) + Long.numberOfTrailingZeros(bits);
+                    frontierCells[frontierStarts[labels[cell]]++] = cell;
+                }
+        for (int f = frontierCount; f > 0; f--)
+            frontierStarts[f] = frontierStarts[f - 1];
+        frontierStarts[0] = 0;
+
+        return frontierCount;
+    }
+
+
+    /* The cells of a frontier detected by the last labelling */
+    public List<Vec2i> cells (int frontier)
+    {
+        List<Vec2i> cells = new ArrayList<>(frontierStarts[frontier + 1] - frontierStarts[frontier]);
+        for (int i = frontierStarts[frontier]; i < frontierStarts[frontier + 1]; i++)
+            cells.add(new Vec2i(frontierCells[i] / cols, frontierCells[i] % cols));
+        return cells;
+    }
+
+
+    /* The frontier cells of a row of a tile (from column y0 inclusive to y1 exclusive) into a word */
+    private long tileBits (int x, int w, int y0, int y1)
+    {
+        long bits = mask.word(x, w);
+        int from = Math.max(y0 - (w << 6), 0), to = Math.min(y1 - (w << 6), 64);
+        long range = (to == 64 ? -1L : (1L << to) - 1L) & (-1L << from);
+        return bits & range;
+    }
+
+
+    /* Label the frontier cells of a tile grouping the close ones */
+    private void labelTile (int tile)
+    {
+        int x0 = (tile / tileCols) * tileSize, y0 = (tile % tileCols) * tileSize;
+        int x1 = Math.min(x0 + tileSize, rows), y1 = Math.min(y0 + tileSize, cols);
+        int[] queue = queues.get();
+
+        int w0 = y0 >>> 6, w1 = (y1 - 1) >>> 6;
+
+        // The frontier cells of the tile are marked as not labelled yet
+        for (int x = x0; x < x1; x++)
+            for (int w = w0; w <= w1; w++)
+                for (long bits = tileBits(x, w, y0, y1); bits != 0L; bits &= bits - 1)
+                    labels[x * cols + (w << 6) + Long.numberOfTrailingZeros(bits)] = -1;
+
+        for (int x = x0; x < x1; x++)
+            for (int w = w0; w <= w1; w++)
+                for (long bits = tileBits(x, w, y0, y1); bits != 0L; bits &= bits - 1)
+                {
+                    int seed = x * cols + (w << 6) + Long.numberOfTrailingZeros(bits);
+                    if (labels[seed] != -1)
+                        continue;
+
+                    // Breath First Search of the close frontier cells into the tile
+                    parent[seed] = seed;
+                    labels[seed] = seed;
+                    int first = 0, size = 0;
+                    queue[size++] = seed;
+                    while (first < size)
+                    {
+                        int cell = queue[first++];
+                        int cx = cell / cols, cy = cell % cols;
+                        for (int d = 0; d < 8; d++)
+                        {
+                            int nx = cx + GridGraph.DX[d], ny = cy + GridGraph.DY[d];
+                            if (nx < x0 || nx >= x1 || ny < y0 || ny >= y1)
+                                continue;
+                            int neighbour = nx * cols + ny;
+                            if (mask.get(nx, ny) && labels[neighbour] == -1)
+                            {
+                                labels[neighbour] = seed;
+                                queue[size++] = neighbour;
+                            }
+                        }
+                    }
+                }
+    }
+
+
+    /* Merge the labels of the close frontier cells on the borders of the tiles */
+    private void stitch ()
+    {
+        // The frontier cells on the last row of a tile and the next row
+        for (int x = tileSize - 1; x + 1 < rows; x += tileSize)
+            for (int w = 0; w < mask.wordsPerRow; w++)
+                for (long bits = mask.word(x, w); bits != 0L; bits &= bits - 1)
+                {
+                    int y = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    for (int dy = -1; dy <= 1; dy++)
+                        union(x * cols + y, x + 1, y + dy);
+                }
+
+        // The frontier cells on the last column of a tile and the next column
+        for (int y = tileSize - 1; y + 1 < cols; y += tileSize)
+            for (int x = 0; x < rows; x++)
+                if (mask.get(x, y))
+                    for (int dx = -1; dx <= 1; dx++)
+                        union(x * cols + y, x + dx, y + 1);
+    }
+
+
+    /* Merge the labels of a cell and of a position, if both are frontier cells */
+    private void union (int cell, int x, int y)
+    {
+        if (x < 0 || x >= rows || y < 0 || y >= cols)
+            return;
+        int other = x * cols + y;
+        if (!mask.get(cell / cols, cell % cols) || !mask.get(x, y))
+            return;
+
+        int a = find(labels[cell]), b = find(labels[other]);
+        if (a == b)
+            return;
+        // The smallest root is kept, so that the result does not depend on the order of the merges
+        if (a < b)
+            parent[b] = a;
+        else
+            parent[a] = b;
+    }
+
+
+    /* The root of a label (the path is halved while it is walked) */
+    private int find (int label)
+    {
+        while (parent[label] != label)
+        {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+
+}
@@ -0,0 +1,31 @@
+package sx.frontier;
+
+import sx.Vec2i;
+
+
+
+public class RankedFrontier
+{
+
+    /*
+        An instance of this class represents a frontier reached by the distance field
+        computed from the robot position (see FrontierDistanceField), with the cost of the
+        path to reach it and the first move the robot should do to follow that path.
+    */
+
+    public Frontier frontier;       // The frontier
+    public Vec2i target;            // The position the robot is supposed to go to visit the frontier
+    public float distance;          // The cost of the minimum path from the robot position to the target
+    public Vec2i firstMove;         // The first position of the minimum path after the robot position
+                                    // (the robot position itself if the robot is already on the target)
+
+
+    public RankedFrontier (Frontier frontier, Vec2i target, float distance, Vec2i firstMove)
+    {
+        this.frontier = frontier;
+        this.target = target;
+        this.distance = distance;
+        this.firstMove = firstMove;
+    }
+
+}
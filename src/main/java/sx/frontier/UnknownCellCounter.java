@@ -0,0 +1,123 @@
+package sx.frontier;
+
+import sx.GridMap;
+
+import java.util.Arrays;
+
+
+
+public class UnknownCellCounter
+{
+
+    /*
+        An instance of this class counts the unknown cells into any rectangle of a grid map
+        through a 2-dimensional Fenwick tree (i.e., a summed-area table that can be updated).
+
+        Both counting the cells of a rectangle and updating a cell cost O(log(rows) * log(cols)),
+        hence the information gain of many frontiers can be computed at every detection while
+        the map is updated cell by cell.
+    */
+
+    public GridMap slam;                            // The grid map whose unknown cells are counted
+    public int rows, cols;                          // The size of the grid map
+    public int[] tree;                              // The Fenwick tree, indexed by (x + 1) * (cols + 1) + (y + 1)
+    public boolean[] unknown;                       // True for the cells counted as unknown
+
+
+    /* Count the unknown cells of a grid map */
+    public UnknownCellCounter (GridMap slam)
+    {
+        this.slam = slam;
+        this.rows = slam.rows;
+        this.cols = slam.cols;
+        this.tree = new int[(rows + 1) * (cols + 1)];
+        this.unknown = new boolean[rows * cols];
+        build();
+    }
+
+
+    /*
+        Count again the unknown cells of the whole grid map (e.g., after it has been changed
+        without updating the counter), reusing the arrays.
+    */
+    public void build ()
+    {
+        Arrays.fill(tree, 0);
+        Arrays.fill(unknown, false);
+
+        // The unknown cells are read 64 at a time
+        int words = slam.bitWordsPerRow();
+        for (int x = 0; x < rows; x++)
+            for (int w = 0; w < words; w++)
+                for (long bits = slam.unknownBits(x, w); bits != 0L; bits &= bits - 1)
+                {
+                    int y = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    unknown[x * cols + y] = true;
+                    tree[(x + 1) * (cols + 1) + y + 1] = 1;
+                }
+
+        // Build the tree in linear time, adding each node to its parent along both dimensions
+        for (int i = 1; i <= rows; i++)
+            for (int j = 1; j <= cols; j++)
+            {
+                int parent = j + (j & -j);
+                if (parent <= cols)
+                    tree[i * (cols + 1) + parent] += tree[i * (cols + 1) + j];
+            }
+        for (int i = 1; i <= rows; i++)
+        {
+            int parent = i + (i & -i);
+            if (parent > rows)
+                continue;
+            for (int j = 1; j <= cols; j++)
+                tree[parent * (cols + 1) + j] += tree[i * (cols + 1) + j];
+        }
+    }
+
+
+    /* Update the counter after a change of a cell of the grid map */
+    public void update (int x, int y, int value)
+    {
+        boolean isUnknown = value < 0;
+        if (unknown[x * cols + y] == isUnknown)
+            return;
+        unknown[x * cols + y] = isUnknown;
+
+        int delta = isUnknown ? 1 : -1;
+        for (int i = x + 1; i <= rows; i += i & -i)
+            for (int j = y + 1; j <= cols; j += j & -j)
+                tree[i * (cols + 1) + j] += delta;
+    }
+
+
+    /* The number of unknown cells with x < x1 and y < y1 */
+    private int prefix (int x1, int y1)
+    {
+        int count = 0;
+        for (int i = x1; i > 0; i -= i & -i)
+            for (int j = y1; j > 0; j -= j & -j)
+                count += tree[i * (cols + 1) + j];
+        return count;
+    }
+
+
+    /* The number of unknown cells of the rectangle from (x0, y0) to (x1, y1), all inclusive and clamped to the grid */
+    public int count (int x0, int y0, int x1, int y1)
+    {
+        x0 = Math.max(x0, 0);
+        y0 = Math.max(y0, 0);
+        x1 = Math.min(x1, rows - 1);
+        y1 = Math.min(y1, cols - 1);
+        if (x0 > x1 || y0 > y1)
+            return 0;
+        return prefix(x1 + 1, y1 + 1) - prefix(x0, y1 + 1) - prefix(x1 + 1, y0) + prefix(x0, y0);
+    }
+
+
+    /* The number of unknown cells of the square of a given radius around a position */
+    public int count (int x, int y, int radius)
+    {
+        return count(x - radius, y - radius, x + radius, y + radius);
+    }
+
+}
@@ -1,11 +1,11 @@
 package sx.frontier;
 
-import org.locationtech.jts.geom.Envelope;
-import org.locationtech.jts.index.quadtree.Quadtree;
-import org.locationtech.jts.index.strtree.STRtree;
+import sx.GridGraph;
+import sx.GridMap;
 import sx.Vec2i;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 
 public class WavefrontFrontierDetector implements FrontierDetector
@@ -14,137 +14,291 @@ public class WavefrontFrontierDetector implements FrontierDetector
     /*
         An instance of this class represents a customized implementation
         of Wavefront Frontier Detection algorithm.
-        Which in enhanced using a Rtree (to consider possibility of QuadTree
-        or STRtree) to a faster detection of the frontiers that should be extended.
+        Which in enhanced keeping track of the cells changed since the last detection
+        (i.e., the dirty cells), so that only the frontiers close to them are extended.
+
+        A change of a cell can only affect the frontiers having a cell in its neighbourhood,
+        hence the frontier each cell is part of is kept into an array, and only those frontiers
+        are removed and grown again. The changed free cells close to the area already visited
+        are expanded too, so that the new areas seen by the robot are visited.
+        The cost of a detection depends on the number of changed cells, not on their spread
+        over the map.
+
+        The Breath First Searches work on cell indices (x * cols + y) kept into buffers
+        allocated once (a ring buffer for the outer one), and the visited cells are marked
+        with a stamp (i.e., a cell is visited if its stamp is equal to the current epoch),
+        so that a detection does not allocate anything but the new frontiers, and a reset
+        only costs the cells of the frontiers detected so far.
+
+        After a map merge or a relocalization, all the frontiers of the map can be detected
+        from scratch labelling the tiles of the map in parallel (see ParallelFrontierLabeller).
+
+        After each detection, the frontiers are scored by their information gain (i.e., the number
+        of unknown cells the robot would see from their barycenter), counted through an index of the
+        unknown cells updated together with the map.
     */
 
     public Vec2i robotPos;                  // The current robot position
-    public int[][] slam;                    // The environment as seen by the algorithm
+    public GridMap slam;                    // The environment as seen by the algorithm
                                             // (i.e., -1 unknown, 0 free known, 1 obstacle)
+    public GridGraph graph;                 // The graph of the grid map used to expand positions
+    public int cols;                        // The number of columns of the grid map
+    public int[] neighbourCells;            // Buffer of the neighbours of the expanded position
+    public float[] neighbourCosts;          // Buffer of the costs to reach the neighbours (not used)
 
     public List<Frontier> frontiers;        // The list of currently detected frontiers
-    public Quadtree rtree;                  // The Rtree that keeps track of frontiers in space for a faster detection
-    public Vec2i minBound, maxBound;        // The cells defining the bunding box of last visited positions
-    public int[][] visited;                 // Binary matrix that sign already visited positions (0 not visited, 1 visited)
+    public Frontier[] owner;                // The frontier each cell (x * cols + y) is part of (null if none)
+    public BitSet dirty;                    // The cells changed since the last detection
+    public int[] dirtyCells;                // The list of the cells changed since the last detection
+    public int dirtyCount;                  // The number of cells changed since the last detection
+
+    public int[] visited;                   // Epoch in which each cell has been visited
                                             // NOTE: We intend visited by the wavefront algorithm not by the robot.
-    public int heapCounter;                 // A counter to ensure the order in the heap queue
+    public int epoch;                       // The current epoch (moved forward by a reset)
+    public int[] queued;                    // Detection in which each cell has been added to the queue
+    public int detection;                   // Counter of detections
+    public int[] queue;                     // Ring buffer of the cells to expand
+    public int head, tail;                  // Index of the first cell into the queue and of the next free slot
+    public int[] frontierQueue;             // Buffer of the cells of the frontier being expanded
+    public ParallelFrontierLabeller labeller;   // The detector of all the frontiers of the map (null until used)
+    public UnknownCellCounter unknownCells; // The index of the unknown cells to compute the information gain
+    public int sensorRadius;                // The radius (in cells) of the square seen by the sensor
 
 
 
     public WavefrontFrontierDetector (Vec2i robotPos, int[][] slam)
+    {
+        this(robotPos, new GridMap(slam));
+    }
+
+
+    public WavefrontFrontierDetector (Vec2i robotPos, GridMap slam)
     {
         this.robotPos = robotPos;
         this.slam = slam;
-        this.visited = new int[slam.length][slam[0].length];
+        this.graph = new GridGraph(slam);
+        this.cols = slam.cols;
+        this.neighbourCells = new int[8];
+        this.neighbourCosts = new float[8];
 
-        this.slam[robotPos.x][robotPos.y] = 0;
-        //this.visited[robotPos.x][robotPos.y] = 1;
+        this.slam.set(robotPos.x, robotPos.y, 0);
 
-        this.minBound = new Vec2i(Integer.MAX_VALUE, Integer.MAX_VALUE);
-        this.maxBound = new Vec2i(Integer.MIN_VALUE, Integer.MIN_VALUE);
+        int size = slam.rows * cols;
         this.frontiers = new ArrayList<>();
-        this.rtree = new Quadtree();            // Eventually consider the usage of different Rtree
+        this.owner = new Frontier[size];
+        this.dirty = new BitSet(size);
+        this.dirtyCells = new int[64];
+        this.dirtyCount = 0;
+
+        // Epoch and detection 0 are the values of untouched cells
+        this.visited = new int[size];
+        this.epoch = 1;
+        this.queued = new int[size];
+        this.detection = 0;
+        this.queue = new int[size + 1];         // Each cell is queued once, and a slot is left free
+        this.frontierQueue = new int[size];
+
+        this.unknownCells = new UnknownCellCounter(slam);
+        this.sensorRadius = 10;
     }
 
 
-    public PriorityQueue<FrontierHeapNode> initExplorationQueue()
+    /* Add a cell to the queue of the cells to expand (once for each detection) */
+    private void enqueue (int cell)
     {
+        if (queued[cell] == detection)
+            return;
+        queued[cell] = detection;
+        queue[tail] = cell;
+        tail = tail + 1 == queue.length ? 0 : tail + 1;
+    }
 
-        PriorityQueue<FrontierHeapNode> queue = new PriorityQueue<>();
 
-        if (frontiers.size() == 0) {
-            heapCounter = 1;
-            queue.add(new FrontierHeapNode(0, robotPos));
-            return queue;
+    /* Init the queue of the cells to expand with the cells close to the changed ones */
+    public void initExplorationQueue()
+    {
+        if (++detection == Integer.MAX_VALUE)
+        {
+            // Stamps overflow (i.e., almost never): clear them once and restart
+            Arrays.fill(queued, 0);
+            detection = 1;
         }
+        head = 0;
+        tail = 0;
 
-        heapCounter = 0;
-        List<Frontier> toRecompute = rtree.query(new Envelope(minBound.x, maxBound.x, minBound.y, maxBound.y));
-        System.out.println("Expanded " + toRecompute.size());
-        for (Frontier f : toRecompute)
+        // First detection (or first after a reset)
+        int robotCell = robotPos.x * cols + robotPos.y;
+        if (visited[robotCell] != epoch)
+            enqueue(robotCell);
+
+        for (int d = 0; d < dirtyCount; d++)
         {
-            rtree.remove(f.box, f);
-            frontiers.remove(f);
-            for (Vec2i cell : f.cells)
+            int cell = dirtyCells[d];
+
+            // The frontiers close to the changed cell are removed and grown again
+            int n = graph.expandAll(cell, neighbourCells, neighbourCosts);
+            for (int k = -1; k < n; k++)
             {
-                visited[cell.x][cell.y] = 0;
-                queue.add(new FrontierHeapNode(heapCounter++, cell));
+                Frontier f = owner[k == -1 ? cell : neighbourCells[k]];
+                if (f == null)
+                    continue;
+                frontiers.remove(f);
+                for (Vec2i position : f.cells)
+                {
+                    int c = position.x * cols + position.y;
+                    owner[c] = null;
+                    visited[c] = 0;
+                    enqueue(c);
+                }
             }
+
+            // A free cell close to the visited area is visited too
+            if (visited[cell] != epoch && slam.isFree(cell / cols, cell % cols))
+                for (int k = 0; k < n; k++)
+                    if (visited[neighbourCells[k]] == epoch)
+                    {
+                        enqueue(cell);
+                        break;
+                    }
         }
+        clearDirty();
+    }
 
-        return queue;
+
+    /* Forget the cells changed since the last detection */
+    private void clearDirty ()
+    {
+        for (int d = 0; d < dirtyCount; d++)
+            dirty.clear(dirtyCells[d]);
+        dirtyCount = 0;
     }
 
 
     @Override
     public void computeDetection()
     {
-        PriorityQueue<FrontierHeapNode> queue = initExplorationQueue();
+        initExplorationQueue();
 
-        while (queue.peek() != null)
+        while (head != tail)
         {
             // Get the next position to expand
-            FrontierHeapNode expandingNode = queue.poll();
-            Vec2i position = expandingNode.position;
+            int cell = queue[head];
+            head = head + 1 == queue.length ? 0 : head + 1;
 
             // Exit if the position has already been visited
-            if (visited[position.x][position.y] == 1)
+            if (visited[cell] == epoch)
                 continue;
 
             // It is marked as visited and expanded
-            visited[position.x][position.y] = 1;
+            visited[cell] = epoch;
 
             // If the position is not a frontier it is expanded
-            if (!isFrontier(position))
+            if (!isFrontier(cell / cols, cell % cols))
             {
-                for (Vec2i i : getNeighbours(position))
-                    if (visited[i.x][i.y] == 0)
-                        queue.add(new FrontierHeapNode(heapCounter++, i));
+                int n = graph.expand(cell, neighbourCells, neighbourCosts);
+                for (int k = 0; k < n; k++)
+                    if (visited[neighbourCells[k]] != epoch)
+                        enqueue(neighbourCells[k]);
 
                 continue;
             }
 
             // If we found a frontier we start exploring it with a nested Breath First Search
-            expandFrontierFrom(position);
+            expandFrontierFrom(cell);
 
         }
-        this.minBound = new Vec2i(Integer.MAX_VALUE, Integer.MAX_VALUE);
-        this.maxBound = new Vec2i(Integer.MIN_VALUE, Integer.MIN_VALUE);
+        scoreFrontiers();
+    }
+
+
+    /* Compute the information gain of each frontier */
+    public void scoreFrontiers()
+    {
+        for (Frontier frontier : frontiers)
+            frontier.informationGain = unknownCells.count(frontier.barycenter.x, frontier.barycenter.y, sensorRadius);
+    }
+
+
+    /*
+        Detect all the frontiers of the grid map from scratch, labelling the tiles of the map in
+        parallel (e.g., after a map merge or a relocalization). All the free cells are considered
+        visited, hence the next detections only grow the frontiers close to the changed cells.
+        The index of the unknown cells is built again too, since the grid map may have been
+        changed without passing by updateSlam.
+    */
+    public void computeFullDetection()
+    {
+        if (labeller == null)
+            labeller = new ParallelFrontierLabeller(slam);
+        reset();
+
+        int count = labeller.label();
+        for (int f = 0; f < count; f++)
+        {
+            Frontier frontier = new Frontier(labeller.cells(f));
+            frontiers.add(frontier);
+            for (int i = labeller.frontierStarts[f]; i < labeller.frontierStarts[f + 1]; i++)
+                owner[labeller.frontierCells[i]] = frontier;
+        }
+
+        // The free cells are marked 64 at a time
+        int current = epoch, words = slam.bitWordsPerRow();
+        labeller.pool.submit(() -> IntStream.range(0, slam.rows).parallel().forEach(x -> {
+            for (int w = 0; w < words; w++)
+                for (long bits = slam.freeBits(x, w); bits != 0L; bits &= bits - 1)
+                    visited[x * cols + (w << 6) + Long.numberOfTrailingZeros(bits)] = current;
+        })).join();
+
+        unknownCells.build();
+        scoreFrontiers();
     }
 
 
     /* Method used to expand a frontier starting from one of its elements */
     public void expandFrontierFrom (Vec2i position)
     {
-        // Init inner queue
-        int innerCounter = 0;
-        PriorityQueue<FrontierHeapNode> innerQueue = new PriorityQueue<>();
-        innerQueue.add(new FrontierHeapNode(0, position));
+        visited[position.x * cols + position.y] = epoch;
+        expandFrontierFrom(position.x * cols + position.y);
+    }
 
-        // Init the set of cells part of the forntier
-        Set<Vec2i> frontierSet = new HashSet<>();
+
+    /*
+        Method used to expand a frontier starting from one of its cells (already visited).
+        The cells of the frontier are the ones that passed by the inner queue, which is never
+        emptied (i.e., the first free slot is the number of cells of the frontier).
+    */
+    private void expandFrontierFrom (int start)
+    {
+        // Init inner queue
+        int first = 0, size = 0;
+        frontierQueue[size++] = start;
 
         // Expand the frontier
-        while (innerQueue.peek() != null)
+        while (first < size)
         {
-            FrontierHeapNode node = innerQueue.poll();
-            Vec2i cPos = node.position;
-
-            frontierSet.add(cPos);
+            int cell = frontierQueue[first++];
 
-            for (Vec2i neighbour : getNeighbours(cPos))
-                if (isFrontier(neighbour) && !frontierSet.contains(neighbour))
+            int n = graph.expand(cell, neighbourCells, neighbourCosts);
+            for (int k = 0; k < n; k++)
+            {
+                int neighbour = neighbourCells[k];
+                if (visited[neighbour] != epoch && isFrontier(neighbour / cols, neighbour % cols))
                 {
-                    visited[neighbour.x][neighbour.y] = 1;
-                    innerQueue.add(new FrontierHeapNode(innerCounter++, neighbour));
+                    visited[neighbour] = epoch;
+                    frontierQueue[size++] = neighbour;
                 }
+            }
 
         }
 
         // Init the frontier
-        Frontier frontier = new Frontier(frontierSet);
+        List<Vec2i> cells = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            cells.add(new Vec2i(frontierQueue[i] / cols, frontierQueue[i] % cols));
+        Frontier frontier = new Frontier(cells);
         frontiers.add(frontier);
-        rtree.insert(frontier.box, frontier);
+        for (int i = 0; i < size; i++)
+            owner[frontierQueue[i]] = frontier;
 
     }
 
@@ -153,30 +307,43 @@ public class WavefrontFrontierDetector implements FrontierDetector
     @Override
     public void reset()
     {
-        this.visited = new int[slam.length][slam[0].length];
-        this.slam[robotPos.x][robotPos.y] = 0;
-        //this.visited[robotPos.x][robotPos.y] = 1;
-        this.minBound = new Vec2i(Integer.MAX_VALUE, Integer.MAX_VALUE);
-        this.maxBound = new Vec2i(Integer.MIN_VALUE, Integer.MIN_VALUE);
-        this.frontiers = new ArrayList<>();
-        this.rtree = new Quadtree();            // Eventually consider the usage of different Rtree
+        if (++epoch == Integer.MAX_VALUE)
+        {
+            // Stamps overflow (i.e., almost never): clear them once and restart
+            Arrays.fill(visited, 0);
+            epoch = 1;
+        }
+        this.slam.set(robotPos.x, robotPos.y, 0);
+        unknownCells.update(robotPos.x, robotPos.y, 0);
+
+        // Only the cells of the detected frontiers have an owner
+        for (Frontier frontier : frontiers)
+            for (Vec2i cell : frontier.cells)
+                owner[cell.x * cols + cell.y] = null;
+        this.frontiers.clear();
+        clearDirty();
     }
 
 
     @Override
     public void updateSlam(int x, int y, int value)
     {
-        // Update the slam
-        slam[x][y] = value;
+        // No changes detected
+        if (slam.get(x, y) == value)
+            return;
 
-        // Expand the bounding box of visited positions
-        if (value == 0)
-        {
-            minBound.x = Math.min(x, minBound.x);
-            minBound.y = Math.min(y, minBound.y);
-            maxBound.x = Math.max(x, maxBound.x);
-            maxBound.y = Math.max(y, maxBound.y);
-        }
+        // Update the slam
+        slam.set(x, y, value);
+        unknownCells.update(x, y, value);
+
+        // Keep track of the changed cell
+        int cell = x * cols + y;
+        if (dirty.get(cell))
+            return;
+        dirty.set(cell);
+        if (dirtyCount == dirtyCells.length)
+            dirtyCells = Arrays.copyOf(dirtyCells, dirtyCount * 2);
+        dirtyCells[dirtyCount++] = cell;
     }
 
 
@@ -196,50 +363,18 @@ public class WavefrontFrontierDetector implements FrontierDetector
 
     public boolean isFrontier (Vec2i position)
     {
-        int x = position.x, y = position.y;
-
-        // Only free positions can be frontiers
-        if (slam[x][y] == -1 || slam[x][y] == 1)
-            return false;
-
-        // Surrounding positions (only vertically and horizontally)
-        int[][] surr = {
-            {x - 1, y},
-            {x + 1, y},
-            {x, y - 1},
-            {x, y + 1}
-        };
-
-        // If at least a surrounding position is unknown, the position is a frontier
-        for (int[] pos : surr)
-        {
-            if (pos[0] >= 0 &&  pos[0] < slam.length && pos[1] >= 0 && pos[1] < slam[0].length && slam[pos[0]][pos[1]] == -1)
-                return true;
-        }
-
-        return false;
+        return isFrontier(position.x, position.y);
     }
 
 
-    public List<Vec2i> getNeighbours (Vec2i position)
+    public boolean isFrontier (int x, int y)
     {
-        List<Vec2i> neighbours = new ArrayList<>(8);
+        // Only free positions can be frontiers
+        if (!slam.isFree(x, y))
+            return false;
 
-        for (int i = position.x - 1; i < position.x + 2; i++)
-        {
-            for (int j = position.y - 1; j < position.y + 2; j++)
-            {
-                if (
-                        (i != position.x || j != position.y) &&               // Exclude the exact position
-                        i >= 0 &&  i < slam.length &&                         // Check we are inside the grid
-                        j >= 0 && j < slam[0].length &&                       // Check we are inside the grid
-                        slam[i][j] == 0  &&                                   // Avoid obstacles and unknown cells
-                        visited[i][j] == 0                                    // Avoid already visited cells
-                )
-                    neighbours.add(new Vec2i(i, j));
-            }
-        }
-        return neighbours;
+        // If at least a surrounding position (only vertically and horizontally) is unknown, the position is a frontier
+        return slam.anyUnknownCross(x, y);
     }
 
 }
@@ -1,6 +1,7 @@
 package sx.gridmerger;
 
 
+import sx.GridMap;
 import sx.Vec2i;
 
 import java.text.DateFormat;
@@ -37,7 +38,7 @@ public class StochasticGridMerger
     public float cLock;                      // Scaling factor regulating the convergence speed
 
 
-    public int[][] grid;                     // The reference grid map --i.e., the one usually kept as it is
+    public GridMap grid;                     // The reference grid map --i.e., the one usually kept as it is
 
     public int[][] dmap_free_ref;            // The distances map relative to free positions in reference grid map (computed only once)
     public int[][] dmap_obstacle_ref;        // The distances map relative to obstacles in reference grid map (computed only once)
@@ -65,12 +66,19 @@ public class StochasticGridMerger
 
     /* Set or update the reference grid map */
     public void setReferenceGrid (int[][] grid)
+    {
+        setReferenceGrid(new GridMap(grid));
+    }
+
+
+    /* Set or update the reference grid map */
+    public void setReferenceGrid (GridMap grid)
     {
         // Set the reference grid map
         this.grid = grid;
 
         //System.out.println("[" + timef.format(new Date()) + "][INFO] Computing distance maps");
-        int X = grid.length, Y = grid[0].length;
+        int X = grid.rows, Y = grid.cols;
 
         // Initialization of relative distance map matrices
         this.dmap_free_ref = new int[X][Y];
@@ -86,8 +94,8 @@ public class StochasticGridMerger
         {
             for (int y = 0; y < Y; y++)
             {
-                dmap_free_ref[x][y] = (grid[x][y] == 0) ? 0 : LARGE_NUMBER;
-                dmap_obstacle_ref[x][y] = (grid[x][y] == 1) ? 0 : LARGE_NUMBER;
+                dmap_free_ref[x][y] = grid.isFree(x, y) ? 0 : LARGE_NUMBER;
+                dmap_obstacle_ref[x][y] = grid.isObstacle(x, y) ? 0 : LARGE_NUMBER;
             }
         }
 
@@ -128,7 +136,7 @@ public class StochasticGridMerger
     */
     public Solution computeTransform (int[][] secondGrid, Transform transform)
     {
-        int X = grid.length, Y = grid[0].length;
+        int X = grid.rows, Y = grid.cols;
 
         // Apply the transform
         int[][] transformedGrid = GridTransformer.transformGrid(secondGrid, transform);
@@ -185,14 +193,16 @@ public class StochasticGridMerger
         {
             for (int y = 0; y < Y; y++)
             {
+                int reference = grid.get(x, y);
+
                 // Update distance components
-                if (grid[x][y] == 0)
+                if (reference == 0)
                 {
                     d_m1_m2_free += dmap_free[x][y];
                     N_free_m1++;
                 }
 
-                if (grid[x][y] == 1)
+                if (reference == 1)
                 {
                     d_m1_m2_obstacle += dmap_obstacle[x][y];
                     N_obstacle_m1++;
@@ -211,9 +221,9 @@ public class StochasticGridMerger
                 }
 
                 // Update agreeement and disagreement
-                if (grid[x][y] != -1 && transformedGrid[x][y] != -1 && grid[x][y] == transformedGrid[x][y])
+                if (reference != -1 && transformedGrid[x][y] != -1 && reference == transformedGrid[x][y])
                     agreement++;
-                if (grid[x][y] != -1 && transformedGrid[x][y] != -1 && grid[x][y] != transformedGrid[x][y])
+                if (reference != -1 && transformedGrid[x][y] != -1 && reference != transformedGrid[x][y])
                     disagreement++;
             }
         }
@@ -244,7 +254,7 @@ public class StochasticGridMerger
     public void exhaustiveSearch (int[][] secondGrid, int minT, int maxT, int stepT, float angle)
     {
         // Set rotation center in the middle of reference grid map
-        Vec2i center = new Vec2i((int) (grid.length / 2.0f), (int) (grid[0].length / 2.0f));
+        Vec2i center = new Vec2i((int) (grid.rows / 2.0f), (int) (grid.cols / 2.0f));
 
         // Initialise the current and best solutions
         this.current = computeTransform(secondGrid, new Transform(0, 0, center, 0.0f));
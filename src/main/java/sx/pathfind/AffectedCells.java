@@ -0,0 +1,87 @@
+package sx.pathfind;
+
+import sx.GridMap;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+
+
+public class AffectedCells
+{
+
+    /*
+        An instance of this class represents the cells affected by a batch of changes of the SLAM
+        (i.e., the changed cells and their neighbours, whose edges changed), collected without
+        duplicates so that the incremental algorithms (DStar, GoalField) recompute each of them once.
+
+        The cells are stamped with the counter of the current batch, hence starting a new batch
+        costs O(1) and the stamps are only cleared when the counter overflows.
+    */
+
+    public int rows, cols;                  // The size of the grid map
+    public int[] cells;                     // The cells affected by the current batch (cell index x * cols + y)
+    public int size;                        // The number of cells affected by the current batch
+    public int[] stamp;                     // Batch in which each cell has been added to the buffer
+    public int batch;                       // Counter of batches of SLAM changes
+
+
+    public AffectedCells (int rows, int cols)
+    {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new int[64];
+        this.size = 0;
+        this.stamp = new int[rows * cols];
+        this.batch = 0;
+    }
+
+
+    /* Start a new batch of changes (the stamps are cleared on overflow) */
+    public void nextBatch ()
+    {
+        if (++batch == Integer.MAX_VALUE)
+        {
+            Arrays.fill(stamp, 0);
+            batch = 1;
+        }
+        size = 0;
+    }
+
+
+    /* Add a position and its neighbours to the cells affected by the current batch, once */
+    public void mark (int x, int y)
+    {
+        for (int i = Math.max(x - 1, 0); i < Math.min(x + 2, rows); i++)
+        {
+            for (int j = Math.max(y - 1, 0); j < Math.min(y + 2, cols); j++)
+            {
+                int cell = i * cols + j;
+                if (stamp[cell] == batch)
+                    continue;
+                stamp[cell] = batch;
+                if (size == cells.length)
+                    cells = Arrays.copyOf(cells, size * 2);
+                cells[size++] = cell;
+            }
+        }
+    }
+
+
+    /* Apply the changes to the SLAM, and mark the positions actually changed and their neighbours */
+    public void apply (GridMap slam, Collection<CellChange> changes)
+    {
+        for (CellChange change : changes)
+        {
+            int x = change.position.x, y = change.position.y;
+
+            // No changes detected
+            if (slam.get(x, y) == change.value)
+                continue;
+            slam.set(x, y, change.value);
+
+            mark(x, y);
+        }
+    }
+
+}
@@ -0,0 +1,450 @@
+package sx.pathfind;
+
+import sx.GridGraph;
+import sx.GridMap;
+import sx.Vec2i;
+import sx.pathfind.exceptions.NoPathFound;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+
+
+public class AnytimeAStar implements PathFinder
+{
+
+    /*
+        An instance of this class represents an implementation of the Anytime Repairing A* (ARA*)
+        algorithm presented in Likhachev, M., Gordon, G. J., & Thrun, S. (2003). ARA*: Anytime A*
+        with provable bounds on sub-optimality. Advances in neural information processing systems, 16.
+
+        A first path is quickly found by a weighted A* that inflates the heuristic by epsilon,
+        hence its cost is at most epsilon times the minimum one. Then, while the time budget
+        allows it, epsilon is lowered and the path is improved reusing the search state:
+        only the positions whose cost decreased after being expanded (i.e., the inconsistent
+        ones) are expanded again, instead of restarting the search from scratch.
+
+        The path found so far is always available through getPath, and the bound of its
+        suboptimality through getSuboptimalityBound. When the bound is 1 the path is optimal.
+
+        NOTE: The first path is always computed even if it takes more than the time budget,
+        since the algorithm must return a path (or declare that no path exists). The budget
+        only limits the following improvements, which can be continued later through improve.
+    */
+
+    public DenseHeap heap;                          // The heap of open cells (OPEN) sorted by g + epsilon * h
+    public Vec2i source, goal;                       // Starting and ending positions
+    public Vec2i current;                            // The current position where the robot
+
+    public Set<Vec2i> covered;                       // The set of positions covered by the robot
+    public LinkedList<Vec2i> path;                   // The best path found so far
+    public GridMap slam;                            // The current knowledge of the environment the algorithm has
+    public GridGraph graph;                         // The graph of the grid map used to expand positions
+    public int rows, cols;                          // The size of the grid map
+
+    public float[] g;                               // Cost of the best path found so far from the search start to each cell
+    public float[] h;                               // Estimation of the distance from each cell to the goal
+    public int[] parent;                            // Parent of each cell closest to the search start (-1 if none)
+    public int[] seen;                              // Generation in which the values of a cell were initialised
+    public int generation;                          // The current search generation (a new one for each new search)
+
+    public int[] closed;                            // Iteration in which a cell has been expanded (CLOSED)
+    public int[] listed;                            // Iteration in which a cell has been inserted into INCONS
+    public int[] queued;                            // Iteration in which a cell has been moved back into OPEN
+    public int iteration;                           // The current improvement iteration (never reset)
+    public int[] incons;                            // The cells expanded again after being closed (INCONS)
+    public int nIncons;                             // The number of cells into INCONS
+
+    public float initialEpsilon;                    // The inflation of the heuristic of the first search
+    public float epsilonStep;                       // The decrease of epsilon at each improvement
+    public float epsilon;                           // The inflation of the heuristic of the current iteration
+    public float bound;                             // The suboptimality bound of the best path found so far
+    public long budget;                             // The time budget of each path computation (in nanoseconds)
+
+    public int searchStart;                         // The cell from which the current search started (-1 if none)
+    public boolean searching;                       // True if the current iteration has not been concluded yet
+    public boolean changed;                         // True if the SLAM changed after the search started
+    public int[] neighbourCells;                    // Buffer of the neighbours of the expanded position
+    public float[] neighbourCosts;                  // Buffer of the costs to reach the neighbours
+
+    public PathFinderMetrics metrics;               // Listener of the work done by the algorithm (null if disabled)
+
+    // Logger time stamp format
+    public SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
+
+
+    public AnytimeAStar (Vec2i source, Vec2i goal, int[][] slam)
+    {
+        this(source, goal, new GridMap(slam));
+    }
+
+
+    public AnytimeAStar (Vec2i source, Vec2i goal, GridMap slam)
+    {
+        this(source, goal, slam, 3.0f, 0.5f, 20000000L);
+    }
+
+
+    public AnytimeAStar (Vec2i source, Vec2i goal, GridMap slam, float initialEpsilon, float epsilonStep, long budget)
+    {
+        this.source = source;
+        this.goal = goal;
+        this.current = source;
+        this.slam = slam;
+        this.graph = new GridGraph(slam);
+        this.rows = slam.rows;
+        this.cols = slam.cols;
+
+        this.path = new LinkedList<>();
+        this.covered = new HashSet<>();
+
+        int size = rows * cols;
+        this.g = new float[size];
+        this.h = new float[size];
+        this.parent = new int[size];
+        this.seen = new int[size];
+        this.closed = new int[size];
+        this.listed = new int[size];
+        this.queued = new int[size];
+        this.incons = new int[64];
+        this.heap = new DenseHeap(1024);
+        this.neighbourCells = new int[8];
+        this.neighbourCosts = new float[8];
+
+        this.initialEpsilon = Math.max(initialEpsilon, 1.0f);
+        this.epsilonStep = epsilonStep;
+        this.budget = budget;
+
+        this.generation = 0;
+        this.iteration = 0;
+        this.searchStart = -1;
+        this.bound = Float.POSITIVE_INFINITY;
+    }
+
+
+    /* Start a new search from the current robot position with the initial epsilon */
+    public void reset ()
+    {
+        if (++generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(seen, 0);
+            generation = 1;
+        }
+        nextIterationStamp();
+        heap.clear();
+        nIncons = 0;
+        epsilon = initialEpsilon;
+        bound = Float.POSITIVE_INFINITY;
+        path = new LinkedList<>();
+        changed = false;
+
+        searchStart = current.x * cols + current.y;
+        touch(searchStart);
+        g[searchStart] = 0.0f;
+
+        // Moving from an obstacle is not possible
+        if (!slam.isObstacle(current.x, current.y))
+            push(searchStart);
+        searching = true;
+    }
+
+
+    /*
+        Improve the best path found so far for at most the given time (in nanoseconds).
+        If the robot moved or the environment changed, a new search is started.
+        It returns true if the best path is optimal (or if no path exists).
+    */
+    public boolean improve (long budget)
+    {
+        long deadline = System.nanoTime() + budget;
+
+        if (searchStart != current.x * cols + current.y || changed)
+            reset();
+
+        while (true)
+        {
+            if (searching)
+            {
+                // Interrupted by the deadline (only after the first path has been found)
+                if (!improvePath(deadline))
+                    return false;
+                searching = false;
+                publish();
+            }
+
+            if (bound <= 1.0f || Float.isInfinite(bound) || System.nanoTime() >= deadline)
+                return bound <= 1.0f || Float.isInfinite(bound);
+
+            decreaseEpsilon();
+        }
+    }
+
+
+    /*
+        Expand the cells until no cell into OPEN can improve the path to the goal
+        according to the current epsilon. It returns false if interrupted by the deadline.
+    */
+    private boolean improvePath (long deadline)
+    {
+        int goalCell = goal.x * cols + goal.y;
+        touch(goalCell);
+        boolean interruptible = bound != Float.POSITIVE_INFINITY;
+        int expansions = 0;
+
+        while (!heap.isEmpty() && g[goalCell] > heap.peekPriority())
+        {
+            // Check the deadline once in a while
+            if (interruptible && (++expansions & 63) == 0 && System.nanoTime() >= deadline)
+                return false;
+
+            float priority = heap.peekPriority();
+            int cell = heap.pop();
+            if (metrics != null)
+                metrics.heapPop();
+
+            // Skip cells already expanded and entries enqueued before finding a shorter path
+            if (closed[cell] == iteration || priority != fValue(cell))
+                continue;
+            closed[cell] = iteration;
+            if (metrics != null)
+                metrics.nodeExpanded();
+
+            float dist = g[cell];
+            int n = graph.expand(cell, neighbourCells, neighbourCosts);
+            for (int k = 0; k < n; k++)
+            {
+                int neighbour = neighbourCells[k];
+                float ncost = dist + neighbourCosts[k];
+                touch(neighbour);
+                if (ncost >= g[neighbour])
+                    continue;
+
+                g[neighbour] = ncost;
+                parent[neighbour] = cell;
+                if (closed[neighbour] != iteration)
+                    push(neighbour);
+                else if (listed[neighbour] != iteration)
+                {
+                    // Expanded again only in the next iterations
+                    listed[neighbour] = iteration;
+                    if (nIncons == incons.length)
+                        incons = Arrays.copyOf(incons, nIncons * 2);
+                    incons[nIncons++] = neighbour;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    /* Lower epsilon, move INCONS into OPEN, and sort OPEN according to the new epsilon */
+    private void decreaseEpsilon ()
+    {
+        int previous = iteration;
+        epsilon = Math.max(1.0f, epsilon - epsilonStep);
+        nextIterationStamp();
+
+        // Collect the cells into OPEN (skipping the stale entries) and into INCONS
+        int[] open = new int[heap.size + nIncons];
+        int nOpen = 0;
+        for (int i = 0; i < heap.size; i++)
+        {
+            int cell = heap.cells[i];
+            if (closed[cell] != previous && queued[cell] != iteration)
+            {
+                queued[cell] = iteration;
+                open[nOpen++] = cell;
+            }
+        }
+        for (int i = 0; i < nIncons; i++)
+            if (queued[incons[i]] != iteration)
+            {
+                queued[incons[i]] = iteration;
+                open[nOpen++] = incons[i];
+            }
+        nIncons = 0;
+
+        heap.clear();
+        for (int i = 0; i < nOpen; i++)
+            push(open[i]);
+        searching = true;
+    }
+
+
+    /* Store the path found by the last iteration and compute its suboptimality bound */
+    private void publish ()
+    {
+        try {
+            extractPath();
+        } catch (NoPathFound ex) {
+            path = new LinkedList<>();
+            bound = Float.POSITIVE_INFINITY;
+            return;
+        }
+
+        // The minimum cost of a path through a cell into OPEN or INCONS is a lower bound of the optimal one
+        float lower = Float.POSITIVE_INFINITY;
+        for (int i = 0; i < heap.size; i++)
+        {
+            int cell = heap.cells[i];
+            if (closed[cell] != iteration)
+                lower = Math.min(lower, g[cell] + h[cell]);
+        }
+        for (int i = 0; i < nIncons; i++)
+            lower = Math.min(lower, g[incons[i]] + h[incons[i]]);
+
+        float cost = g[goal.x * cols + goal.y];
+        bound = lower == Float.POSITIVE_INFINITY ? 1.0f : Math.max(1.0f, Math.min(epsilon, cost / lower));
+    }
+
+
+    /* Backward reconstruction of the best path found so far */
+    @Override
+    public void extractPath() throws NoPathFound
+    {
+        int goalCell = goal.x * cols + goal.y;
+
+        // Path not found
+        if (seen[goalCell] != generation || g[goalCell] == Float.POSITIVE_INFINITY)
+            throw new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found");
+
+        LinkedList<Vec2i> path = new LinkedList<>();
+        for (int cell = goalCell; cell != -1; cell = parent[cell])
+            path.addFirst(new Vec2i(cell / cols, cell % cols));
+
+        this.path = path;
+        if (metrics != null)
+            metrics.pathLength(path.size());
+    }
+
+
+    @Override
+    public void computePath()
+    {
+        reset();
+        computeStartingPath();
+    }
+
+
+    /*
+        Compute a path within the time budget: the first path is returned as soon as it is found,
+        then it is improved until the budget expires or the path is optimal.
+    */
+    @Override
+    public void computeStartingPath()
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            improve(budget);
+            if (path.isEmpty())
+                throw new RuntimeException(new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found"));
+        } finally {
+            if (metrics != null)
+                metrics.computePathLatency(System.nanoTime() - start);
+        }
+    }
+
+
+    /* The suboptimality bound of the best path found so far */
+    @Override
+    public float getSuboptimalityBound()
+    {
+        return bound;
+    }
+
+
+    /* The priority of a cell into OPEN */
+    private float fValue (int cell)
+    {
+        return g[cell] + epsilon * h[cell];
+    }
+
+
+    private void push (int cell)
+    {
+        heap.push(cell, fValue(cell));
+        if (metrics != null)
+            metrics.heapPush();
+    }
+
+
+    /* Move to a new iteration (stamps are cleared in the very rare case of overflow) */
+    private void nextIterationStamp ()
+    {
+        if (++iteration == Integer.MAX_VALUE)
+        {
+            Arrays.fill(closed, 0);
+            Arrays.fill(listed, 0);
+            Arrays.fill(queued, 0);
+            iteration = 1;
+        }
+    }
+
+
+    /* Initialise the values of a cell the first time it is met in the current generation */
+    private void touch (int cell)
+    {
+        if (seen[cell] == generation)
+            return;
+        seen[cell] = generation;
+        parent[cell] = -1;
+        g[cell] = Float.POSITIVE_INFINITY;
+        h[cell] = JumpPointSearch.octile(cell / cols, cell % cols, goal.x, goal.y);
+    }
+
+
+    /*
+        Method used to update the SLAM (i.e., the view the robot has
+        of the environment). The next path computation starts a new search.
+    */
+    @Override
+    public void updateSlam(Vec2i position, int value)
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        if (slam.get(position.x, position.y) != value)
+        {
+            slam.set(position.x, position.y, value);
+            changed = true;
+        }
+        if (metrics != null)
+            metrics.updateSlamLatency(System.nanoTime() - start);
+    }
+
+
+    /* Inform the algorithm that the robot is doing a step to the goal */
+    @Override
+    public void step()
+    {
+        // Arrived
+        if (current.equals(goal))
+            return;
+        // Next step
+        path.removeFirst();
+        current = path.getFirst();
+        covered.add(current);
+    }
+
+
+    /* Return the robot current position known by the algorithm */
+    @Override
+    public Vec2i getCurrent()
+    {
+        return current;
+    }
+
+
+    /* Method to return the best path found so far */
+    @Override
+    public LinkedList<Vec2i> getPath()
+    {
+        return path;
+    }
+
+
+    @Override
+    public void setMetrics(PathFinderMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+}
@@ -0,0 +1,252 @@
+package sx.pathfind;
+
+import sx.GridGraph;
+import sx.GridMap;
+import sx.Vec2i;
+import sx.pathfind.exceptions.NoPathFound;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+
+public class BidirectionalAStar implements PathFinder
+{
+
+    /*
+        An instance of this class represents a bidirectional A* algorithm: a forward A* from the
+        robot position towards the goal and a backward A* from the goal towards the robot
+        position (the grid is undirected, hence the backward search uses the same moves).
+
+        Every time a search reaches a cell already reached by the opposite one, the cost of the
+        path passing by that cell is offered to the meeting point, which keeps the minimum one (mu).
+        Since the octile heuristic is consistent, the minimum priority of the open cells of a
+        search is a lower bound of the cost of any path not found yet, hence both searches stop
+        as soon as the minimum priority of either search is not lower than mu.
+
+        Optionally, the backward search runs on another thread. In this case, the meeting point
+        is updated through compare-and-set (cost and cell are packed into a single long), the
+        searches read the costs of each other without locks (see DirectionalSearch), and a
+        volatile flag stops both searches as soon as one of them proves the path optimal.
+    */
+
+    public Vec2i source, goal;                       // Starting and ending positions
+    public Vec2i current;                            // The current position where the robot
+
+    public Set<Vec2i> covered;                       // The set of positions covered by the robot
+    public LinkedList<Vec2i> path;                   // The current minimum path to the goal
+    public GridMap slam;                            // The current knowledge of the environment the algorithm has
+    public GridGraph graph;                         // The graph of the grid map
+    public int cols;                                // The number of columns of the grid map
+
+    public DirectionalSearch forward;               // Search from the robot position towards the goal
+    public DirectionalSearch backward;              // Search from the goal towards the robot position
+    public AtomicLong meeting;                      // The cost (high 32 bits) and the cell (low 32 bits) of the best meeting
+    public volatile boolean stopped;                // True as soon as one of the searches stops both
+
+    public boolean parallel;                        // True if the two searches run on two threads
+    public Executor executor;                       // The executor running the backward search in parallel mode
+
+    // Logger time stamp format
+    public SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
+
+
+    public BidirectionalAStar (Vec2i source, Vec2i goal, int[][] slam)
+    {
+        this(source, goal, new GridMap(slam), false);
+    }
+
+
+    public BidirectionalAStar (Vec2i source, Vec2i goal, GridMap slam, boolean parallel)
+    {
+        this.source = source;
+        this.goal = goal;
+        this.current = source;
+        this.slam = slam;
+        this.graph = new GridGraph(slam);
+        this.cols = slam.cols;
+
+        this.path = new LinkedList<>();
+        this.covered = new HashSet<>();
+
+        this.forward = new DirectionalSearch(graph);
+        this.backward = new DirectionalSearch(graph);
+        this.meeting = new AtomicLong(Long.MAX_VALUE);
+
+        this.parallel = parallel;
+        this.executor = ForkJoinPool.commonPool();
+    }
+
+
+    /* Offer a path passing by a cell with the given cost (safe from any thread) */
+    public void meet (float cost, int cell)
+    {
+        // Costs are positive, hence their bits are sorted as the costs themselves
+        long packed = ((long) Float.floatToIntBits(cost) << 32) | cell;
+        long best = meeting.get();
+        while (packed < best && !meeting.compareAndSet(best, packed))
+            best = meeting.get();
+    }
+
+
+    /* The cost of the best path found so far (infinite if none) */
+    public float mu ()
+    {
+        long best = meeting.get();
+        return best == Long.MAX_VALUE ? Float.POSITIVE_INFINITY : Float.intBitsToFloat((int) (best >>> 32));
+    }
+
+
+    /*
+        Run a search until either search proves the best path found optimal, or until
+        the search has no more cells to expand (i.e., no other path exists).
+    */
+    private void run (DirectionalSearch search, DirectionalSearch opposite)
+    {
+        while (!stopped)
+        {
+            if (search.top() >= mu())
+            {
+                stopped = true;
+                return;
+            }
+            search.expand(opposite, this);
+        }
+    }
+
+
+    /* Run the two searches alternating one expansion each */
+    private void runAlternating ()
+    {
+        while (true)
+        {
+            float mu = mu();
+            if (forward.top() >= mu || backward.top() >= mu)
+                return;
+            forward.expand(backward, this);
+
+            mu = mu();
+            if (forward.top() >= mu || backward.top() >= mu)
+                return;
+            backward.expand(forward, this);
+        }
+    }
+
+
+    /* Compute the path from the current robot position to the goal */
+    public void search ()
+    {
+        int start = current.x * cols + current.y;
+        int target = goal.x * cols + goal.y;
+
+        forward.reset(start, goal.x, goal.y);
+        backward.reset(target, current.x, current.y);
+        meeting.set(Long.MAX_VALUE);
+        stopped = false;
+
+        // Moving from or to an obstacle is not possible
+        if (slam.isObstacle(current.x, current.y) || slam.isObstacle(goal.x, goal.y))
+            return;
+        if (start == target)
+        {
+            meet(0.0f, start);
+            return;
+        }
+
+        if (!parallel)
+        {
+            runAlternating();
+            return;
+        }
+
+        CompletableFuture<Void> task = CompletableFuture.runAsync(() -> run(backward, forward), executor);
+        run(forward, backward);
+        task.join();
+    }
+
+
+    /* Reconstruct the path joining the two half paths at the meeting cell */
+    @Override
+    public void extractPath() throws NoPathFound
+    {
+        long best = meeting.get();
+
+        // Path not found
+        if (best == Long.MAX_VALUE)
+            throw new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found");
+
+        int cell = (int) best;
+        LinkedList<Vec2i> path = new LinkedList<>();
+        for (int c = cell; c != -1; c = forward.parent[c])
+            path.addFirst(new Vec2i(c / cols, c % cols));
+        for (int c = backward.parent[cell]; c != -1; c = backward.parent[c])
+            path.addLast(new Vec2i(c / cols, c % cols));
+
+        this.path = path;
+    }
+
+
+    @Override
+    public void computePath()
+    {
+        computeStartingPath();
+    }
+
+
+    @Override
+    public void computeStartingPath()
+    {
+        search();
+        try {
+            extractPath();
+        } catch (NoPathFound ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+
+    /*
+        Method used to update the SLAM (i.e., the view the robot has
+        of the environment).
+    */
+    @Override
+    public void updateSlam(Vec2i position, int value)
+    {
+        slam.set(position.x, position.y, value);
+    }
+
+
+    /* Inform the algorithm that the robot is doing a step to the goal */
+    @Override
+    public void step()
+    {
+        // Arrived
+        if (current.equals(goal))
+            return;
+        // Next step
+        path.removeFirst();
+        current = path.getFirst();
+        covered.add(current);
+    }
+
+
+    /* Return the robot current position known by the algorithm */
+    @Override
+    public Vec2i getCurrent()
+    {
+        return current;
+    }
+
+
+    /* Method to return the currently considered minimum path */
+    @Override
+    public LinkedList<Vec2i> getPath()
+    {
+        return path;
+    }
+
+}
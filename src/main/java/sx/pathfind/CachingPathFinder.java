@@ -0,0 +1,208 @@
+package sx.pathfind;
+
+import sx.IntPath;
+import sx.Vec2i;
+import sx.pathfind.exceptions.NoPathFound;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+
+
+public class CachingPathFinder implements PathFinder
+{
+
+    /*
+        An instance of this class represents a path finding algorithm that looks for the
+        path into a PathCache before computing it, and stores into the cache the paths it
+        computes. The paths are computed by a path finder created on demand by a factory
+        (e.g., AStar::new) from the current robot position and map.
+
+        The changes of the map are forwarded to the cache, which evicts the paths they
+        affect, and to the last created path finder, which is reused as long as the robot
+        follows the path it computed (so that incremental algorithms, such as DStar, keep
+        their state).
+
+        NOTE: A cache should be shared only by path finders working on the same map.
+    */
+
+    /* The constructor of the path finders computing the paths not cached */
+    @FunctionalInterface
+    public interface Factory
+    {
+        PathFinder create (Vec2i source, Vec2i goal, int[][] slam);
+    }
+
+    public Vec2i source, goal;                       // Starting and ending positions
+    public Vec2i current;                            // The current position where the robot
+
+    public Set<Vec2i> covered;                       // The set of positions covered by the robot
+    public LinkedList<Vec2i> path;                   // The current minimum path to the goal
+    public int[][] slam;                            // The current knowledge of the environment the algorithm has
+    public PathCache cache;                         // The cache of the paths
+    public Factory factory;                         // The constructor of the path finders
+    public PathFinder delegate;                     // The last created path finder (null if none)
+    public boolean following;                       // True if the robot is following the path of the delegate
+    public PathFinderMetrics metrics;               // Listener of the work done by the delegates (null if disabled)
+
+    // Logger time stamp format
+    public SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
+
+
+    public CachingPathFinder (Vec2i source, Vec2i goal, int[][] slam, PathCache cache, Factory factory)
+    {
+        this.source = source;
+        this.goal = goal;
+        this.current = source;
+        this.slam = slam;
+        this.cache = cache;
+        this.factory = factory;
+        this.delegate = null;
+        this.following = false;
+        this.path = new LinkedList<>();
+        this.covered = new HashSet<>();
+    }
+
+
+    /* Take the path from the cache */
+    @Override
+    public void extractPath () throws NoPathFound
+    {
+        IntPath cached = cache.get(current, goal);
+        if (cached == null)
+            throw new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found");
+        path = cached.toLinkedList();
+        following = false;
+    }
+
+
+    /*
+        Take the path from the cache, or compute it with the delegate if it is not cached.
+        In the last case, the path is stored into the cache.
+    */
+    @Override
+    public void computePath ()
+    {
+        IntPath cached = cache.get(current, goal);
+        if (cached != null)
+        {
+            path = cached.toLinkedList();
+            following = false;
+            return;
+        }
+
+        // The delegate is reused only if it knows where the robot is
+        if (delegate == null || !following || !delegate.getCurrent().equals(current))
+        {
+            delegate = factory.create(current, goal, slam);
+            delegate.setMetrics(metrics);
+        }
+
+        long version = cache.version;
+        delegate.computePath();
+        path = delegate.getPath();
+        following = true;
+        cache.put(current, goal, delegate.getIntPath(), version);
+    }
+
+
+    @Override
+    public void computeStartingPath ()
+    {
+        computePath();
+    }
+
+
+    /*
+        Method used to update the SLAM (i.e., the view the robot has
+        of the environment).
+    */
+    @Override
+    public void updateSlam (Vec2i position, int value)
+    {
+        // No changes detected (the cells seen again must not evict the cached paths)
+        if (slam[position.x][position.y] == value)
+            return;
+
+        slam[position.x][position.y] = value;
+        cache.update(position, value);
+        if (delegate != null)
+            delegate.updateSlam(position, value);
+    }
+
+
+    @Override
+    public void updateSlam (Collection<CellChange> changes)
+    {
+        // Only the cells actually changed are forwarded
+        List<CellChange> changed = new ArrayList<>(changes.size());
+        for (CellChange change : changes)
+            if (slam[change.position.x][change.position.y] != change.value)
+            {
+                slam[change.position.x][change.position.y] = change.value;
+                changed.add(change);
+            }
+        if (changed.isEmpty())
+            return;
+
+        cache.update(changed);
+        if (delegate != null)
+            delegate.updateSlam(changed);
+    }
+
+
+    /* Inform the algorithm that the robot is doing a step to the goal */
+    @Override
+    public void step ()
+    {
+        // Arrived
+        if (current.equals(goal))
+            return;
+
+        // The delegate follows the robot only if the robot is following its path
+        if (following)
+        {
+            delegate.step();
+            path = delegate.getPath();
+            current = delegate.getCurrent();
+        }
+        else
+        {
+            path.removeFirst();
+            current = path.getFirst();
+        }
+        covered.add(current);
+    }
+
+
+    @Override
+    public void setMetrics (PathFinderMetrics metrics)
+    {
+        this.metrics = metrics;
+        if (delegate != null)
+            delegate.setMetrics(metrics);
+    }
+
+
+    /* Return the robot current position known by the algorithm */
+    @Override
+    public Vec2i getCurrent ()
+    {
+        return current;
+    }
+
+
+    /* Method to return the currently considered minimum path */
+    @Override
+    public LinkedList<Vec2i> getPath ()
+    {
+        return path;
+    }
+
+}
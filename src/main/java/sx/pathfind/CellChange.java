@@ -0,0 +1,32 @@
+package sx.pathfind;
+
+import sx.Vec2i;
+
+
+
+public class CellChange
+{
+
+    /*
+        An instance of this class represents the change of a cell of the SLAM
+        (e.g., one of the cells updated by a lidar scan).
+    */
+
+    public Vec2i position;          // The changed position
+    public int value;               // The new value of the position (0 free, 1 obstacle, -1 unknown)
+
+
+    public CellChange (Vec2i position, int value)
+    {
+        this.position = position;
+        this.value = value;
+    }
+
+
+    public CellChange (int x, int y, int value)
+    {
+        this.position = new Vec2i(x, y);
+        this.value = value;
+    }
+
+}
@@ -0,0 +1,41 @@
+package sx.pathfind;
+
+import sx.GridMap;
+
+
+
+public interface CostModel
+{
+
+    /*
+    ================================================================================================================
+
+        Interface of the models of the cost of moving between two close cells of a grid map,
+        identified by their index x * cols + y (i.e., no positions are allocated to compute a cost).
+
+        The cost is computed from the length of the move (1 for straight moves and 1.414 for diagonal
+        moves), and it is infinite if the move is not possible. In order to keep the heuristics
+        admissible, the cost of a move should never be lower than its length.
+
+        The built-in ones are:
+            - uniform: the length of the move, or infinite moving into or from an obstacle
+            - TerrainCostModel: the length of the move weighted by the occupancy values of a ROS grid map
+
+    ================================================================================================================
+    */
+
+    /* The cost of moving from a cell to a close cell given the length of the move */
+    float moveCost (int from, int to, float length);
+
+
+    /* The length of the moves, infinite moving into or from an obstacle of the grid map */
+    static CostModel uniform (GridMap map)
+    {
+        return (from, to, length) -> {
+            if (map.isObstacle(from / map.cols, from % map.cols) || map.isObstacle(to / map.cols, to % map.cols))
+                return Float.POSITIVE_INFINITY;
+            return length;
+        };
+    }
+
+}
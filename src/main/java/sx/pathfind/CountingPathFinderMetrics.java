@@ -0,0 +1,133 @@
+package sx.pathfind;
+
+
+
+public class CountingPathFinderMetrics implements PathFinderMetrics
+{
+
+    /*
+        An instance of this class represents a listener that keeps the counters and the latency
+        histograms of a path finding algorithm, so that they can be periodically exported
+        (e.g., to a monitoring system) and reset.
+
+        NOTE: The counters are plain fields updated by the thread using the algorithm. An exporter
+        running on another thread should read them between two path computations.
+    */
+
+    public long nodesExpanded;                      // Number of positions expanded
+    public long heapPushes, heapPops;               // Number of insertions into the heap and extractions from the heap
+    public long heapUpdates, heapRemoves;           // Number of priority changes and removals of positions into the heap
+    public long rhsRecomputations;                  // Number of RHS recomputed from all the successors
+    public long paths;                              // Number of paths extracted
+    public int lastPathLength;                      // Number of positions of the last extracted path
+
+    public LatencyHistogram computePath;            // Latencies of path computations
+    public LatencyHistogram updateSlam;             // Latencies of SLAM updates
+    public LatencyHistogram extractPath;            // Latencies of path extractions
+
+
+    public CountingPathFinderMetrics ()
+    {
+        this.computePath = new LatencyHistogram();
+        this.updateSlam = new LatencyHistogram();
+        this.extractPath = new LatencyHistogram();
+    }
+
+
+    /* Reset all the counters and histograms */
+    public void reset ()
+    {
+        nodesExpanded = 0L;
+        heapPushes = 0L;
+        heapPops = 0L;
+        heapUpdates = 0L;
+        heapRemoves = 0L;
+        rhsRecomputations = 0L;
+        paths = 0L;
+        lastPathLength = 0;
+        computePath.reset();
+        updateSlam.reset();
+        extractPath.reset();
+    }
+
+
+    @Override
+    public void nodeExpanded()
+    {
+        nodesExpanded++;
+    }
+
+
+    @Override
+    public void heapPush()
+    {
+        heapPushes++;
+    }
+
+
+    @Override
+    public void heapPop()
+    {
+        heapPops++;
+    }
+
+
+    @Override
+    public void heapUpdate()
+    {
+        heapUpdates++;
+    }
+
+
+    @Override
+    public void heapRemove()
+    {
+        heapRemoves++;
+    }
+
+
+    @Override
+    public void rhsRecomputation()
+    {
+        rhsRecomputations++;
+    }
+
+
+    @Override
+    public void pathLength(int length)
+    {
+        paths++;
+        lastPathLength = length;
+    }
+
+
+    @Override
+    public void computePathLatency(long nanos)
+    {
+        computePath.record(nanos);
+    }
+
+
+    @Override
+    public void updateSlamLatency(long nanos)
+    {
+        updateSlam.record(nanos);
+    }
+
+
+    @Override
+    public void extractPathLatency(long nanos)
+    {
+        extractPath.record(nanos);
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "expanded=" + nodesExpanded + " pushes=" + heapPushes + " pops=" + heapPops + " updates=" + heapUpdates
+                + " removes=" + heapRemoves + " rhs=" + rhsRecomputations + " pathLength=" + lastPathLength
+                + "\n  computePath: " + computePath + "\n  updateSlam: " + updateSlam + "\n  extractPath: " + extractPath;
+    }
+
+}
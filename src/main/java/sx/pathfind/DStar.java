@@ -1,5 +1,7 @@
 package sx.pathfind;
 
+import sx.GridGraph;
+import sx.GridMap;
 import sx.Vec2i;
 import sx.pathfind.exceptions.NoPathFound;
 
@@ -15,10 +17,8 @@ public class DStar implements PathFinder
       as presented in Koenig, S., & Likhachev, M. (2002). D* lite. Aaai/iaai, 15, 476-483.
     */
 
-    public PriorityQueue<DStarHeapNode> heap;       // The heap of next positions to visit
-    public Map<Vec2i, DStarHeapNode> inconsistents;  // The set of map of inconsistent nodes (used only because
-                                                    // looking for an element in a hash map is computationally faster than
-                                                    // looking for it in the queue
+    public IndexedHeap heap;                        // The heap of inconsistent positions to visit, indexed by cell
+                                                    // (x * cols + y) to update and remove positions in O(log n)
 
     public float km;                                // Accumulation factor
     public Vec2i source, goal, current, last;        // Starting and ending positions, the current position where the robot is,
@@ -27,15 +27,31 @@ public class DStar implements PathFinder
     public Set<Vec2i> covered;                       // The set of positions covered by the robot
     public LinkedList<Vec2i> path;                   // The current minimum path to the goal
 
-    public int[][] slam;                            // The current knowledge of the environment the algorithm has
+    public GridMap slam;                            // The current knowledge of the environment the algorithm has
+    public int cols;                                // The number of columns of the grid map (used to index cells)
+    public GridGraph graph;                         // The graph of the grid map used to expand positions
+    public int[] neighbourCells, succCells;         // Buffers of the neighbours of the expanded positions
+    public float[] neighbourCosts, succCosts;       // Buffers of the costs to reach the neighbours
     public float[][] rhs;                           // The second level estimate of distance between nodes and goal
     public float[][] g;                             // The matrices of distances between nodes and goal
 
+    public AffectedCells affected;                  // Positions affected by a batch of SLAM changes
+
+    public PathFinderMetrics metrics;               // Listener of the work done by the algorithm (null if disabled)
+    public CostModel costModel;                     // The cost of moving between close positions
+    public Heuristic estimator;                     // The estimation of the distance between two positions
+
     // Logger time stamp format
     public SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
 
 
     public DStar (Vec2i source, Vec2i goal, int[][] slam)
+    {
+        this(source, goal, new GridMap(slam));
+    }
+
+
+    public DStar (Vec2i source, Vec2i goal, GridMap slam)
     {
         this.source = source;
         this.goal = goal;
@@ -43,17 +59,26 @@ public class DStar implements PathFinder
         this.last = source;
         this.slam = slam;
 
+        this.cols = slam.cols;
+        this.graph = new GridGraph(slam);
+        this.neighbourCells = new int[8];
+        this.neighbourCosts = new float[8];
+        this.succCells = new int[8];
+        this.succCosts = new float[8];
+
         this.km = 0.0f;
+        this.costModel = CostModel.uniform(slam);
+        this.estimator = Heuristic.octile(cols);
 
-        this.heap = new PriorityQueue<>();
-        this.inconsistents = new HashMap<>();
+        this.heap = new IndexedHeap(slam.rows * cols);
+        this.affected = new AffectedCells(slam.rows, cols);
         this.covered = new HashSet<>();
         this.path = new LinkedList<>();
 
         // Init matrices for distances estimation and SLAM update
-        this.rhs = new float[slam.length][slam[0].length];
-        this.g = new float[slam.length][slam[0].length];
-        for (int i = 0; i < slam.length; i++)
+        this.rhs = new float[slam.rows][cols];
+        this.g = new float[slam.rows][cols];
+        for (int i = 0; i < slam.rows; i++)
         {
             Arrays.fill(g[i], Float.POSITIVE_INFINITY);
             Arrays.fill(rhs[i], Float.POSITIVE_INFINITY);
@@ -61,9 +86,7 @@ public class DStar implements PathFinder
 
         // Init heap and matrices
         rhs[goal.x][goal.y] = 0.0f;
-        DStarHeapNode hn = computeHeapNode(goal);
-        inconsistents.put(goal, hn);
-        heap.add(hn);
+        heap.put(goal.x * cols + goal.y, key1(goal.x, goal.y), key2(goal.x, goal.y));
 
     }
 
@@ -75,14 +98,11 @@ public class DStar implements PathFinder
     {
         this.km = 0.0f;
 
-        this.heap = new PriorityQueue<>();
-        this.inconsistents = new HashMap<>();
+        this.heap.clear();
         this.path = new LinkedList<>();
 
         // Init matrices for distances estimation and SLAM update
-        this.rhs = new float[slam.length][slam[0].length];
-        this.g = new float[slam.length][slam[0].length];
-        for (int i = 0; i < slam.length; i++)
+        for (int i = 0; i < slam.rows; i++)
         {
             Arrays.fill(g[i], Float.POSITIVE_INFINITY);
             Arrays.fill(rhs[i], Float.POSITIVE_INFINITY);
@@ -90,9 +110,7 @@ public class DStar implements PathFinder
 
         // Init heap and matrices
         rhs[goal.x][goal.y] = 0.0f;
-        DStarHeapNode hn = computeHeapNode(goal);
-        inconsistents.put(goal, hn);
-        heap.add(hn);
+        heap.put(goal.x * cols + goal.y, key1(goal.x, goal.y), key2(goal.x, goal.y));
     }
 
 
@@ -103,16 +121,9 @@ public class DStar implements PathFinder
         if (p1.equals(p2))
             return 0.0f;
 
-        // Move into obstacle or from obstacle
-        if ( slam[p1.x][p1.y] == 1 || slam[p2.x][p2.y] == 1 )
-            return Float.POSITIVE_INFINITY;
-
-        // Vertical or horizontal movement
-        if ( p1.x == p2.x || p1.y == p2.y )
-            return 1.0f;
-
-        // Diagonal movement
-        return 1.414f;
+        // Vertical or horizontal movement, or diagonal movement
+        float length = ( p1.x == p2.x || p1.y == p2.y ) ? 1.0f : 1.414f;
+        return costModel.moveCost(p1.x * cols + p1.y, p2.x * cols + p2.y, length);
     }
 
 
@@ -124,15 +135,46 @@ public class DStar implements PathFinder
     }
 
 
-    /* Compute the heap node and the priority associated with a position */
-    public DStarHeapNode computeHeapNode (Vec2i position)
+    /* Compute the first level of the priority associated with a position */
+    public float key1 (int x, int y)
+    {
+        return Math.min(g[x][y], rhs[x][y]) + km + heuristic(current.x, current.y, x, y);
+    }
+
+
+    /* The heuristic estimation of the distance between two positions */
+    public float heuristic (int x1, int y1, int x2, int y2)
     {
-        int x = position.x, y = position.y;
-        return new DStarHeapNode(
-                Math.min(g[x][y], rhs[x][y]) + km + euclidean(current, position),
-                Math.min(g[x][y], rhs[x][y]),
-                position
-        );
+        return estimator.estimate(x1 * cols + y1, x2 * cols + y2);
+    }
+
+
+    /*
+        Use a heuristic estimation of the distances (e.g., the LandmarkHeuristic).
+        The keys of the positions depend on the heuristic, hence the knowledge is reset.
+    */
+    public void setHeuristic (Heuristic estimator)
+    {
+        this.estimator = estimator;
+        reset();
+    }
+
+
+    /*
+        Use a cost model of the moves (e.g., the TerrainCostModel of a ROS grid map).
+        The distances to the goal depend on the costs, hence the knowledge is reset.
+    */
+    public void setCostModel (CostModel costModel)
+    {
+        this.costModel = costModel;
+        reset();
+    }
+
+
+    /* Compute the second level of the priority associated with a position */
+    public float key2 (int x, int y)
+    {
+        return Math.min(g[x][y], rhs[x][y]);
     }
 
 
@@ -163,31 +205,30 @@ public class DStar implements PathFinder
     /* Update a vertex checking its consistency */
     public void updateVertex (Vec2i position)
     {
-        int x = position.x, y = position.y;
-
-        if (g[x][y] != rhs[x][y] && inconsistents.containsKey(position))
-        {
+        updateVertex(position.x, position.y);
+    }
 
-            DStarHeapNode node = inconsistents.get(position);
-            DStarHeapNode updatedNode = computeHeapNode(position);
-            inconsistents.put(position, updatedNode);
-            heap.remove(node);
-            heap.add(updatedNode);
 
-        } else if (g[x][y] != rhs[x][y] && !inconsistents.containsKey(position))
+    /* Update a vertex checking its consistency */
+    public void updateVertex (int x, int y)
+    {
+        // Inconsistent positions are inserted into the heap or their priority is updated,
+        // while consistent ones are removed
+        int cell = x * cols + y;
+        if (g[x][y] != rhs[x][y])
         {
-
-            DStarHeapNode node = computeHeapNode(position);
-            inconsistents.put(position, node);
-            heap.add(node);
-
-        } else if (g[x][y] == rhs[x][y] && inconsistents.containsKey(position))
+            if (metrics != null)
+            {
+                if (heap.contains(cell)) metrics.heapUpdate();
+                else metrics.heapPush();
+            }
+            heap.put(cell, key1(x, y), key2(x, y));
+        }
+        else
         {
-
-            DStarHeapNode node = inconsistents.get(position);
-            inconsistents.remove(position);
-            heap.remove(node);
-
+            if (metrics != null && heap.contains(cell))
+                metrics.heapRemove();
+            heap.remove(cell);
         }
     }
 
@@ -195,68 +236,94 @@ public class DStar implements PathFinder
     /*
         Method used to update the SLAM (i.e., the view the robot has
         of the environment).
+        The RHS of the changed position and of its neighbours is recomputed from their
+        successors, so that any cost model of the moves is handled.
      */
     @Override
     public void updateSlam (Vec2i position, int value)
     {
-        // No changes detected
-        if (slam[position.x][position.y] == value)
-            return;
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            // No changes detected
+            if (slam.get(position.x, position.y) == value)
+                return;
+
+            slam.set(position.x, position.y, value);
+            affected.nextBatch();
+            affected.mark(position.x, position.y);
+            recomputeAffected();
+        } finally {
+            if (metrics != null)
+                metrics.updateSlamLatency(System.nanoTime() - start);
+        }
+    }
 
-        // Update the accumulation factor if robot already moved
-        km += euclidean(last, current);
-        last = current;
 
-        // Pick position coordinates
-        int x = position.x, y = position.y;
 
-        // Store the old value of the cell
-        int old_value = value == 1 ? 0 : 1;
+    /*
+        Method used to update the SLAM with many changes at once (e.g., a whole sensor scan).
 
-        // Iterate the cell's neighbours
-        for (Vec2i neighbour : getNeighbours(position))
-        {
-            // Update neighbours from changed cell to neighbours
-            Vec2i u = position, v = neighbour;
-            slam[x][y] = old_value;
-            float c_old = moveCost(u, v);        // Old cost before updating the SLAM
-            slam[x][y] = value;
-            float c_new = moveCost(u, v);        // New cost after updating the SLAM
-
-            if (c_old > c_new && !u.equals(goal))
-            {
-                rhs[u.x][u.y] = Math.min(rhs[u.x][u.y], c_new + g[v.x][v.y]);
-            }
-            else if (rhs[u.x][u.y] == c_old + g[v.x][v.y] && !u.equals(goal))
-            {
-                rhs[u.x][u.y] = Float.POSITIVE_INFINITY;
-                for (Vec2i succ : getNeighbours(u))
-                    rhs[u.x][u.y] = Math.min(rhs[u.x][u.y], moveCost(u, succ) + g[succ.x][succ.y]);
-            }
-            updateVertex(u);
+        Differently from updating one cell at a time, the accumulation factor is updated once,
+        and each position whose edges changed (i.e., changed cells and their neighbours) has
+        its RHS recomputed and its priority updated only once, even if it is close to many
+        changed cells. The coalesced updates are then handled by a single backward computation.
+     */
+    @Override
+    public void updateSlam (Collection<CellChange> changes)
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            // Apply the changes and collect the affected positions without duplicates
+            affected.nextBatch();
+            affected.apply(slam, changes);
+            recomputeAffected();
+        } finally {
+            if (metrics != null)
+                metrics.updateSlamLatency(System.nanoTime() - start);
+        }
+    }
 
-            // Update edges from neighbours to changed cell
-            u = neighbour; v = position;
-            slam[x][y] = old_value;
-            c_old = moveCost(u, v);          // Old cost before updating the SLAM
-            slam[x][y] = value;
-            c_new = moveCost(u, v);          // New cost after updating the SLAM
 
-            if (c_old > c_new && !u.equals(goal))
-            {
-                rhs[u.x][u.y] = Math.min(rhs[u.x][u.y], c_new + g[v.x][v.y]);
-            }
-            else if (rhs[u.x][u.y] == c_old + g[v.x][v.y] && !u.equals(goal))
-            {
-                rhs[u.x][u.y] = Float.POSITIVE_INFINITY;
-                for (Vec2i succ : getNeighbours(u))
-                    rhs[u.x][u.y] = Math.min(rhs[u.x][u.y], moveCost(u, succ) + g[succ.x][succ.y]);
-            }
-            updateVertex(u);
+
+    /*
+        Method used to inform the algorithm that the cost model changed the costs of the moves
+        into or from some positions (e.g., after TerrainCostModel.setOccupancy), without changes
+        of the SLAM. As for the changes of the SLAM, the affected positions are updated once.
+     */
+    public void updateCosts (Collection<Vec2i> positions)
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            affected.nextBatch();
+            for (Vec2i position : positions)
+                affected.mark(position.x, position.y);
+            recomputeAffected();
+        } finally {
+            if (metrics != null)
+                metrics.updateSlamLatency(System.nanoTime() - start);
         }
     }
 
 
+    /* Recompute the RHS of the affected positions from their successors and update their priority */
+    private void recomputeAffected ()
+    {
+        if (affected.size == 0)
+            return;
+
+        // Update the accumulation factor once if robot already moved
+        km += heuristic(last.x, last.y, current.x, current.y);
+        last = current;
+
+        for (int k = 0; k < affected.size; k++)
+        {
+            int x = affected.cells[k] / cols, y = affected.cells[k] % cols;
+            if (x != goal.x || y != goal.y)
+                rhs[x][y] = minSuccessor(x, y);
+            updateVertex(x, y);
+        }
+    }
+
 
     /*
         Backward computation of the minimum path through the process described in the paper.
@@ -264,47 +331,83 @@ public class DStar implements PathFinder
     public void backwardPathComputation ()
     {
         while (
-                heap.peek() != null &&
-                (heap.peek().compareTo(computeHeapNode(current)) < 0  ||
+                !heap.isEmpty() &&
+                (IndexedHeap.compare(heap.peekK1(), heap.peekK2(), key1(current.x, current.y), key2(current.x, current.y)) < 0  ||
                 rhs[current.x][current.y] > g[current.x][current.y])
         ) {
-            DStarHeapNode node = heap.poll();
-            Vec2i position = node.position;
-            DStarHeapNode newNode = computeHeapNode(position);
+            int cell = heap.peekCell();
+            int x = cell / cols, y = cell % cols;
+            float newK1 = key1(x, y), newK2 = key2(x, y);
 
-            if (node.compareTo(newNode) < 0) {
+            if (IndexedHeap.compare(heap.peekK1(), heap.peekK2(), newK1, newK2) < 0) {
 
-                heap.add(newNode);
-                inconsistents.put(position, newNode);
+                heap.put(cell, newK1, newK2);
+                if (metrics != null)
+                    metrics.heapUpdate();
 
-            } else if (g[position.x][position.y] > rhs[position.x][position.y]) {
+            } else if (g[x][y] > rhs[x][y]) {
 
-                g[position.x][position.y] = rhs[position.x][position.y];
-                inconsistents.remove(position);
-                for (Vec2i s : getNeighbours(position)) {
-                    if (!s.equals(goal))
-                        rhs[s.x][s.y] = Math.min(rhs[s.x][s.y], moveCost(s, position) + g[position.x][position.y]);
-                    updateVertex(s);
+                heap.pop();
+                if (metrics != null) {
+                    metrics.heapPop();
+                    metrics.nodeExpanded();
+                }
+                g[x][y] = rhs[x][y];
+                int n = graph.expand(cell, neighbourCells, neighbourCosts);
+                for (int k = 0; k < n; k++) {
+                    int sx = neighbourCells[k] / cols, sy = neighbourCells[k] % cols;
+                    if (sx != goal.x || sy != goal.y)
+                        rhs[sx][sy] = Math.min(rhs[sx][sy], costModel.moveCost(neighbourCells[k], cell, neighbourCosts[k]) + g[x][y]);
+                    updateVertex(sx, sy);
                 }
 
             } else {
-                float g_old = g[position.x][position.y];
-                g[position.x][position.y] = Float.POSITIVE_INFINITY;
-                List<Vec2i> pred = getNeighbours(position);
-                pred.add(position);
-                for (Vec2i s : pred) {
-                    if (rhs[s.x][s.y] == moveCost(s, position) + g_old && !s.equals(goal)) {
-                        rhs[s.x][s.y] = Float.POSITIVE_INFINITY;
-                        for (Vec2i succ : getNeighbours(s))
-                            rhs[s.x][s.y] = Math.min(rhs[s.x][s.y], moveCost(s, succ) + g[succ.x][succ.y]);
+                heap.pop();
+                if (metrics != null) {
+                    metrics.heapPop();
+                    metrics.nodeExpanded();
+                }
+                float g_old = g[x][y];
+                g[x][y] = Float.POSITIVE_INFINITY;
+                int n = graph.expand(cell, neighbourCells, neighbourCosts);
+
+                // Predecessors are the neighbours and the position itself
+                for (int k = 0; k <= n; k++) {
+                    int sx = x, sy = y;
+                    float cost = 0.0f;
+                    if (k < n) {
+                        sx = neighbourCells[k] / cols;
+                        sy = neighbourCells[k] % cols;
+                        cost = costModel.moveCost(neighbourCells[k], cell, neighbourCosts[k]);
                     }
-                    updateVertex(s);
+                    if (rhs[sx][sy] == cost + g_old && (sx != goal.x || sy != goal.y))
+                        rhs[sx][sy] = minSuccessor(sx, sy);
+                    updateVertex(sx, sy);
                 }
             }
         }
     }
 
 
+    /* The minimum among the costs to reach the goal passing by each successor of a position */
+    public float minSuccessor (int x, int y)
+    {
+        if (metrics != null)
+            metrics.rhsRecomputation();
+
+        // Moving from an obstacle is not possible
+        if (slam.isObstacle(x, y))
+            return Float.POSITIVE_INFINITY;
+
+        int cell = x * cols + y;
+        float min = Float.POSITIVE_INFINITY;
+        int n = graph.expand(cell, succCells, succCosts);
+        for (int k = 0; k < n; k++)
+            min = Math.min(min, costModel.moveCost(cell, succCells[k], succCosts[k]) + g[succCells[k] / cols][succCells[k] % cols]);
+        return min;
+    }
+
+
 
     /*
       Compute the shortest path to the goal according to the current knowledge of the environment.
@@ -320,21 +423,27 @@ public class DStar implements PathFinder
     @Override
     public void computePath()
     {
-        backwardPathComputation();
-        try
-        {
-            extractPath();
-        } catch (NoPathFound e)
-        {
-            reset();
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
             backwardPathComputation();
-            try {
+            try
+            {
                 extractPath();
-                System.out.println("[" + time.format(new Date()) + "][INFO] DStar: Re-computation needed");
-            } catch (NoPathFound ex)
+            } catch (NoPathFound e)
             {
-                throw new RuntimeException(ex);
+                reset();
+                backwardPathComputation();
+                try {
+                    extractPath();
+                    System.out.println("[" + time.format(new Date()) + "][INFO] DStar: Re-computation needed");
+                } catch (NoPathFound ex)
+                {
+                    throw new RuntimeException(ex);
+                }
             }
+        } finally {
+            if (metrics != null)
+                metrics.computePathLatency(System.nanoTime() - start);
         }
     }
 
@@ -350,11 +459,17 @@ public class DStar implements PathFinder
     @Override
     public void computeStartingPath()
     {
-        backwardPathComputation();
+        long start = metrics != null ? System.nanoTime() : 0L;
         try {
-            extractPath();
-        } catch (NoPathFound ex) {
-            throw new RuntimeException(ex);
+            backwardPathComputation();
+            try {
+                extractPath();
+            } catch (NoPathFound ex) {
+                throw new RuntimeException(ex);
+            }
+        } finally {
+            if (metrics != null)
+                metrics.computePathLatency(System.nanoTime() - start);
         }
     }
 
@@ -364,46 +479,62 @@ public class DStar implements PathFinder
     @Override
     public void extractPath() throws NoPathFound
     {
-        LinkedList<Vec2i> path = new LinkedList<>();
-        Set<Vec2i> visited = new HashSet<>();
-        path.add(current);
-        visited.add(current);
-        Vec2i cNode = current;
-
-        while (!cNode.equals(goal))
-        {
-            Vec2i minNode = null;
-            float minCost = Float.POSITIVE_INFINITY;
-            float minT = Float.POSITIVE_INFINITY;
-
-            for (Vec2i next : getNeighbours(cNode))
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            LinkedList<Vec2i> path = new LinkedList<>();
+            Set<Vec2i> visited = new HashSet<>();
+            path.add(current);
+            visited.add(current);
+            Vec2i cNode = current;
+            Vec2i probe = new Vec2i(0, 0);              // Reused to look up the visited positions
+
+            while (!cNode.equals(goal))
             {
-
-                float cost = g[next.x][next.y] + moveCost(cNode, next);
-                float air_cost = euclidean(next, goal) + moveCost(cNode, next);
-
-                if (cost < minCost && !visited.contains(next)) {
-                    minCost = cost;
-                    minNode = next;
-                    minT = air_cost;
-                } else if (cost == minCost && !visited.contains(next)) {
-                    if (air_cost < minT) {
+                int minCell = -1;
+                float minCost = Float.POSITIVE_INFINITY;
+                float minT = Float.POSITIVE_INFINITY;
+
+                int cell = cNode.x * cols + cNode.y;
+                int n = graph.expand(cell, neighbourCells, neighbourCosts);
+                for (int k = 0; k < n; k++)
+                {
+                    probe.x = neighbourCells[k] / cols;
+                    probe.y = neighbourCells[k] % cols;
+                    float moveCost = costModel.moveCost(cell, neighbourCells[k], neighbourCosts[k]);
+
+                    float cost = g[probe.x][probe.y] + moveCost;
+                    float air_cost = heuristic(probe.x, probe.y, goal.x, goal.y) + moveCost;
+
+                    if (cost < minCost && !visited.contains(probe)) {
                         minCost = cost;
-                        minNode = next;
+                        minCell = neighbourCells[k];
                         minT = air_cost;
+                    } else if (cost == minCost && !visited.contains(probe)) {
+                        if (air_cost < minT) {
+                            minCost = cost;
+                            minCell = neighbourCells[k];
+                            minT = air_cost;
+                        }
                     }
+
                 }
 
-            }
+                if (minCell == -1)
+                    throw new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found");
 
-            if (minNode == null)
-                throw new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found");
+                Vec2i minNode = new Vec2i(minCell / cols, minCell % cols);
+                path.add(minNode);
+                visited.add(minNode);
+                cNode = minNode;
+            }
+            this.path = path;
 
-            path.add(minNode);
-            visited.add(minNode);
-            cNode = minNode;
+            if (metrics != null)
+                metrics.pathLength(path.size());
+        } finally {
+            if (metrics != null)
+                metrics.extractPathLatency(System.nanoTime() - start);
         }
-        this.path = path;
     }
 
 
@@ -417,41 +548,31 @@ public class DStar implements PathFinder
 
 
 
-    /*
-      Get the neighbours of a position by excluding the obstacles.
-      NOTE: The positions occupied by obstacles are not returned.
-    */
-    public List<Vec2i> getNeighbours (Vec2i position)
+    @Override
+    public void setMetrics(PathFinderMetrics metrics)
     {
-        List<Vec2i> neighbours = new ArrayList<>(8);
-
-        for (int i = position.x - 1; i < position.x + 2; i++)
-        {
-            for (int j = position.y - 1; j < position.y + 2; j++)
-            {
-
-                if (
-                      (i != position.x || j != position.y) &&       // Exclude the exact position
-                      i >= 0 &&                                     // Check we are inside the grid
-                      i < slam.length &&                            // Check we are inside the grid
-                      j >= 0 &&                                     // Check we are inside the grid
-                      j < slam[0].length &&                         // Check we are inside the grid
-                      slam[i][j] == 0                               // Avoid positions occupied by obstacles
-                )
-                    neighbours.add(new Vec2i(i, j));
-
-            }
-        }
-        return neighbours;
+        this.metrics = metrics;
     }
 
 
+
     /* The euclidean distance between two positions */
     public static float euclidean (Vec2i v1, Vec2i v2)
     {
         if (v1.equals(v2))
             return 0.0f;
-        return (float) Math.sqrt(Math.pow(v1.x - v2.x, 2) + Math.pow(v1.y - v2.y, 2));
+        int dx = v1.x - v2.x, dy = v1.y - v2.y;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+
+    /* The euclidean distance between two positions given by their coordinates */
+    public static float euclidean (int x1, int y1, int x2, int y2)
+    {
+        if (x1 == x2 && y1 == y2)
+            return 0.0f;
+        int dx = x1 - x2, dy = y1 - y2;
+        return (float) Math.sqrt(dx * dx + dy * dy);
     }
 
 
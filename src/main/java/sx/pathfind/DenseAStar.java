@@ -0,0 +1,357 @@
+package sx.pathfind;
+
+import sx.GridGraph;
+import sx.GridMap;
+import sx.IntPath;
+import sx.Vec2i;
+import sx.pathfind.exceptions.NoPathFound;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+
+
+public class DenseAStar implements PathFinder
+{
+
+    /*
+        An instance of this class represents an implementation of the A* algorithm
+        (same semantics of AStar) where the search state is kept in flat primitive arrays
+        indexed by x * cols + y instead of hash maps of positions.
+
+        The arrays are allocated once. Each search is identified by a generation number,
+        and a value stored in the arrays is valid only if the stamp of its cell is equal
+        to the current generation. In this way, resetting the algorithm after a change
+        in the environment costs O(1) and does not require any allocation.
+
+        The cells are expanded through the GridGraph of the grid map, hence expanding a cell
+        does not allocate anything. This is the search engine of AStar too.
+    */
+
+    public DenseHeap heap;                          // The heap of open cells to explore
+    public Vec2i source, goal;                       // Starting and ending positions
+    public Vec2i current;                            // The current position where the robot
+
+    public Set<Vec2i> covered;                       // The set of positions covered by the robot
+    public IntPath path;                            // The current minimum path to the goal
+    public LinkedList<Vec2i> positions;             // The current path unpacked by getPath (null until asked)
+    public GridMap slam;                            // The current knowledge of the environment the algorithm has
+    public GridGraph graph;                         // The graph of the grid map used to expand cells
+    public int rows, cols;                          // The size of the grid map
+    public int[] neighbourCells;                    // Buffer of the neighbours of the expanded cell
+    public float[] neighbourCosts;                  // Buffer of the costs to reach the neighbours
+
+    public int[] parent;                            // Parent of each cell closest to the source (-1 if none)
+    public float[] cost;                            // Minimum distance found so far from the robot position to each cell
+    public float[] heuristic;                       // Estimation of the distance from each cell to the goal
+    public int[] seen;                              // Generation in which parent, cost and heuristic of a cell were set
+    public int[] closed;                            // Generation in which a cell has been expanded
+    public int generation;                          // The current search generation
+
+    public CostModel costModel;                     // The cost of moving between close cells (the length of the move if null)
+    public Heuristic estimator;                     // The estimation of the distance between two cells
+    public PathFinderMetrics metrics;               // Listener of the work done by the algorithm (null if disabled)
+
+    // Logger time stamp format
+    public SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
+
+
+    public DenseAStar (Vec2i source, Vec2i goal, int[][] slam)
+    {
+        this(source, goal, new GridMap(slam));
+    }
+
+
+    public DenseAStar (Vec2i source, Vec2i goal, GridMap slam)
+    {
+        this.source = source;
+        this.goal = goal;
+        this.current = source;
+        this.slam = slam;
+        this.graph = new GridGraph(slam);
+        this.rows = slam.rows;
+        this.cols = slam.cols;
+        this.neighbourCells = new int[8];
+        this.neighbourCosts = new float[8];
+
+        this.path = new IntPath();
+        this.covered = new HashSet<>();
+
+        int size = rows * cols;
+        this.parent = new int[size];
+        this.cost = new float[size];
+        this.heuristic = new float[size];
+        this.seen = new int[size];
+        this.closed = new int[size];
+        this.heap = new DenseHeap(1024);
+        this.costModel = null;
+        this.estimator = Heuristic.octile(cols);
+
+        // Generation 0 is the value of untouched cells
+        this.generation = 0;
+        reset();
+    }
+
+
+    /* The index of a position in the flat arrays */
+    public int index (int x, int y)
+    {
+        return x * cols + y;
+    }
+
+
+    /*
+        This method reset the computed path after a change in the environment
+        and prepare the algorithm to a further path computation.
+        NOTE: The arrays are not cleared, the generation is just moved forward.
+    */
+    public void reset ()
+    {
+        if (++generation == Integer.MAX_VALUE)
+        {
+            // Stamps overflow (i.e., almost never): clear them once and restart
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+        heap.clear();
+    }
+
+
+    /*
+        Prepare the algorithm to compute a path between a new couple of positions.
+        The grid map is not modified, hence the same instance can be reused as a
+        search workspace for many independent queries on the same map.
+    */
+    public void retarget (Vec2i source, Vec2i goal)
+    {
+        this.source = source;
+        this.goal = goal;
+        this.current = source;
+        this.covered.clear();
+        this.path = new IntPath();
+        this.positions = null;
+        reset();
+    }
+
+
+    /* Inform the algorithm that the robot is doing a step to the goal */
+    @Override
+    public void step()
+    {
+        // Arrived
+        if (current.equals(goal))
+            return;
+        // Next step (the cursor of the path is moved, the positions are not)
+        path.advance();
+        if (positions != null)
+            positions.removeFirst();
+        current = path.getFirst();
+        covered.add(current);
+    }
+
+
+    /*
+        Backward reconstruction of minimum path from current robot
+        position to goal position.
+    */
+    @Override
+    public void extractPath() throws NoPathFound
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            int goalCell = index(goal.x, goal.y);
+
+            // Path not found
+            if (seen[goalCell] != generation || cost[goalCell] == Float.POSITIVE_INFINITY)
+                throw new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found");
+
+            IntPath path = new IntPath();
+            for (int cell = goalCell; cell != -1; cell = parent[cell])
+                path.add(cell / cols, cell % cols);
+            path.reverse();
+
+            this.path = path;
+            this.positions = null;
+
+            if (metrics != null)
+                metrics.pathLength(path.size());
+        } finally {
+            if (metrics != null)
+                metrics.extractPathLatency(System.nanoTime() - start);
+        }
+    }
+
+
+    @Override
+    public void computePath()
+    {
+        reset();
+        computeStartingPath();
+    }
+
+
+    @Override
+    public void computeStartingPath()
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            search();
+            extractPath();
+        } catch (NoPathFound ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            if (metrics != null)
+                metrics.computePathLatency(System.nanoTime() - start);
+        }
+    }
+
+
+    /* Forward search from the current robot position until the goal is expanded */
+    public void search()
+    {
+        int goalCell = index(goal.x, goal.y);
+        int start = index(current.x, current.y);
+
+        // Start expanding the current robot position
+        touch(start);
+        cost[start] = 0.0f;
+        heap.push(start, heuristic[start]);
+        if (metrics != null)
+            metrics.heapPush();
+
+        // Moving from an obstacle is not possible
+        if (slam.isObstacle(current.x, current.y))
+            heap.clear();
+
+        while (!heap.isEmpty())
+        {
+            int cell = heap.pop();
+            if (metrics != null)
+                metrics.heapPop();
+
+            // Skip bad paths enqueued before finding a shorter one
+            if (closed[cell] == generation)
+                continue;
+            closed[cell] = generation;
+            if (metrics != null)
+                metrics.nodeExpanded();
+
+            if (cell == goalCell)
+                break;
+
+            float dist = cost[cell];
+            int n = graph.expand(cell, neighbourCells, neighbourCosts);
+            for (int k = 0; k < n; k++)
+            {
+                int neighbour = neighbourCells[k];
+                if (closed[neighbour] == generation)
+                    continue;
+
+                float move = neighbourCosts[k];
+                if (costModel != null)
+                    move = costModel.moveCost(cell, neighbour, move);
+                float ncost = dist + move;
+                if (ncost == Float.POSITIVE_INFINITY)
+                    continue;
+
+                // Only a shorter path is enqueued again (ties would be expanded forever)
+                touch(neighbour);
+                if (ncost < cost[neighbour])
+                {
+                    cost[neighbour] = ncost;
+                    parent[neighbour] = cell;
+                    heap.push(neighbour, ncost + heuristic[neighbour]);
+                    if (metrics != null)
+                        metrics.heapPush();
+                }
+            }
+        }
+    }
+
+
+    /* Initialise the values of a cell the first time it is met in the current generation */
+    private void touch (int cell)
+    {
+        if (seen[cell] == generation)
+            return;
+        seen[cell] = generation;
+        parent[cell] = -1;
+        cost[cell] = Float.POSITIVE_INFINITY;
+        heuristic[cell] = estimator.estimate(cell, index(goal.x, goal.y));
+    }
+
+
+    /*
+        Method used to update the SLAM (i.e., the view the robot has
+        of the environment).
+    */
+    @Override
+    public void updateSlam(Vec2i position, int value)
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        slam.set(position.x, position.y, value);
+        if (metrics != null)
+            metrics.updateSlamLatency(System.nanoTime() - start);
+    }
+
+
+    @Override
+    public void setMetrics(PathFinderMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+
+    /* Use a cost model of the moves (e.g., the TerrainCostModel of a ROS grid map) */
+    public void setCostModel(CostModel costModel)
+    {
+        this.costModel = costModel;
+    }
+
+
+    /* Use a heuristic estimation of the distances (e.g., the LandmarkHeuristic) */
+    public void setHeuristic(Heuristic estimator)
+    {
+        this.estimator = estimator;
+    }
+
+
+    /* Return the robot current position known by the algorithm */
+    @Override
+    public Vec2i getCurrent()
+    {
+        return current;
+    }
+
+
+    /*
+        Method to return the currently considered minimum path.
+        The path is unpacked at the first call, then the same list is returned (and moved
+        forward by step) until a new path is computed.
+    */
+    @Override
+    public LinkedList<Vec2i> getPath()
+    {
+        if (positions == null)
+            positions = path.toLinkedList();
+        return positions;
+    }
+
+
+    /* Method to return a read-only view of the currently considered minimum path */
+    @Override
+    public IntPath getIntPath()
+    {
+        return path.view();
+    }
+
+
+    /* The euclidean distance between two positions */
+    public static float euclidean (int x1, int y1, int x2, int y2)
+    {
+        int dx = x1 - x2, dy = y1 - y2;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+}
@@ -0,0 +1,153 @@
+package sx.pathfind;
+
+import java.util.Arrays;
+
+
+
+public class DenseHeap
+{
+
+    /*
+        An instance of this class represents a binary min-heap of grid cells stored as
+        a struct of arrays (priorities, insertion counters and cell indices) instead of
+        one heap node object per push.
+
+        Nodes with the same priority are kept in insertion order through a counter.
+
+        NOTE: The heap does not support decrease-key. Cells can be pushed more than once
+        and stale entries should be skipped by the caller when popped.
+        NOTE: clear() costs O(1) and the arrays are never shrunk, so a warmed up heap
+        does not allocate anymore.
+    */
+
+    public float[] priorities;          // The priority of each entry (i.e., the A* path length estimation)
+    public int[] counters;              // The insertion counter of each entry to keep in order entries with same priority
+    public int[] cells;                 // The cell index of each entry
+    public int size;                    // The number of entries currently into the heap
+    public int counter;                 // Counter of entries pushed since the last clear
+
+
+    public DenseHeap (int capacity)
+    {
+        capacity = Math.max(capacity, 16);
+        this.priorities = new float[capacity];
+        this.counters = new int[capacity];
+        this.cells = new int[capacity];
+        this.size = 0;
+        this.counter = 0;
+    }
+
+
+    /* Remove all the entries */
+    public void clear ()
+    {
+        size = 0;
+        counter = 0;
+    }
+
+
+    public boolean isEmpty ()
+    {
+        return size == 0;
+    }
+
+
+    /* The cell of the entry with minimum priority */
+    public int peekCell ()
+    {
+        return cells[0];
+    }
+
+
+    /* The minimum priority into the heap */
+    public float peekPriority ()
+    {
+        return priorities[0];
+    }
+
+
+    /* Add a new entry to the heap */
+    public void push (int cell, float priority)
+    {
+        if (size == cells.length)
+            grow();
+
+        // Sift up the new entry
+        int tick = counter++;
+        int i = size++;
+        while (i > 0)
+        {
+            int p = (i - 1) >>> 1;
+            if (!less(priority, tick, priorities[p], counters[p]))
+                break;
+            move(p, i);
+            i = p;
+        }
+        set(i, cell, priority, tick);
+    }
+
+
+    /* Remove the entry with minimum priority and return its cell */
+    public int pop ()
+    {
+        int top = cells[0];
+        int last = --size;
+        if (last > 0)
+        {
+            float priority = priorities[last];
+            int tick = counters[last];
+            int cell = cells[last];
+
+            // Sift down the last entry from the root
+            int i = 0;
+            int half = last >>> 1;
+            while (i < half)
+            {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < last && less(priorities[right], counters[right], priorities[child], counters[child]))
+                    child = right;
+                if (!less(priorities[child], counters[child], priority, tick))
+                    break;
+                move(child, i);
+                i = child;
+            }
+            set(i, cell, priority, tick);
+        }
+        return top;
+    }
+
+
+    private static boolean less (float p1, int c1, float p2, int c2)
+    {
+        if (p1 == p2)
+            return c1 < c2;
+        return p1 < p2;
+    }
+
+
+    private void move (int from, int to)
+    {
+        priorities[to] = priorities[from];
+        counters[to] = counters[from];
+        cells[to] = cells[from];
+    }
+
+
+    private void set (int i, int cell, float priority, int tick)
+    {
+        priorities[i] = priority;
+        counters[i] = tick;
+        cells[i] = cell;
+    }
+
+
+    private void grow ()
+    {
+        int capacity = cells.length << 1;
+        priorities = Arrays.copyOf(priorities, capacity);
+        counters = Arrays.copyOf(counters, capacity);
+        cells = Arrays.copyOf(cells, capacity);
+    }
+
+}
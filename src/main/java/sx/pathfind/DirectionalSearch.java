@@ -0,0 +1,158 @@
+package sx.pathfind;
+
+import sx.GridGraph;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+
+
+public class DirectionalSearch
+{
+
+    /*
+        An instance of this class represents one of the two searches of BidirectionalAStar:
+        an A* from a start cell towards a target cell, which can be advanced one expansion
+        at a time.
+
+        The search state is kept in flat arrays reset in O(1) through a generation counter
+        (see DenseAStar). The costs of the cells can be read by the opposite search, possibly
+        running on another thread, hence they are written and read as volatile: a search writes
+        the cost of a cell and then reads the cost of the opposite search, and volatile accesses
+        are totally ordered, so at least one of the two searches sees the cost written by the
+        other and no meeting point is missed (release/acquire would allow both to miss it).
+        The cost of a cell is reset before its generation is published, so that a reader that
+        sees the current generation never reads the cost of an old search.
+    */
+
+    private static final VarHandle FLOATS = MethodHandles.arrayElementVarHandle(float[].class);
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    public GridGraph graph;                         // The graph of the grid map
+    public int cols;                                // The number of columns of the grid map
+    public int targetX, targetY;                    // The position the search is moving towards
+
+    public float[] cost;                            // Minimum distance found so far from the start to each cell
+    public int[] parent;                            // Parent of each cell closest to the start (-1 if none)
+    public int[] seen;                              // Generation in which the values of a cell were initialised
+    public int[] closed;                            // Generation in which a cell has been expanded
+    public int generation;                          // The current search generation
+    public DenseHeap heap;                          // The heap of open cells sorted by cost + heuristic
+
+    public int[] neighbourCells;                    // Buffer of the neighbours of the expanded position
+    public float[] neighbourCosts;                  // Buffer of the costs to reach the neighbours
+
+
+    public DirectionalSearch (GridGraph graph)
+    {
+        this.graph = graph;
+        this.cols = graph.cols;
+
+        int size = graph.rows * graph.cols;
+        this.cost = new float[size];
+        this.parent = new int[size];
+        this.seen = new int[size];
+        this.closed = new int[size];
+        this.generation = 0;
+        this.heap = new DenseHeap(1024);
+        this.neighbourCells = new int[8];
+        this.neighbourCosts = new float[8];
+    }
+
+
+    /* Start a new search from a cell towards a position */
+    public void reset (int start, int targetX, int targetY)
+    {
+        if (++generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+        this.targetX = targetX;
+        this.targetY = targetY;
+        heap.clear();
+
+        touch(start);
+        FLOATS.setVolatile(cost, start, 0.0f);
+        heap.push(start, heuristic(start));
+    }
+
+
+    /* The cost of a cell, or infinite if not reached by the current search (safe from any thread) */
+    public float costOf (int cell)
+    {
+        if ((int) INTS.getVolatile(seen, cell) != generation)
+            return Float.POSITIVE_INFINITY;
+        return (float) FLOATS.getVolatile(cost, cell);
+    }
+
+
+    /*
+        The minimum priority of the open cells, which is a lower bound of the cost of any
+        path not found yet (infinite if there are no more cells to expand).
+    */
+    public float top ()
+    {
+        // Discard the entries of expanded cells and the ones enqueued before finding a shorter path
+        while (!heap.isEmpty())
+        {
+            int cell = heap.peekCell();
+            if (closed[cell] != generation && heap.peekPriority() == cost[cell] + heuristic(cell))
+                return heap.peekPriority();
+            heap.pop();
+        }
+        return Float.POSITIVE_INFINITY;
+    }
+
+
+    /*
+        Expand the open cell with minimum priority (top must be called first), and offer to
+        the meeting point every path passing by one of its neighbours already reached by the
+        opposite search.
+    */
+    public void expand (DirectionalSearch opposite, BidirectionalAStar meeting)
+    {
+        int cell = heap.pop();
+        closed[cell] = generation;
+        float dist = cost[cell];
+
+        int n = graph.expand(cell, neighbourCells, neighbourCosts);
+        for (int k = 0; k < n; k++)
+        {
+            int neighbour = neighbourCells[k];
+            float ncost = dist + neighbourCosts[k];
+            touch(neighbour);
+            if (ncost < cost[neighbour])
+            {
+                parent[neighbour] = cell;
+                FLOATS.setVolatile(cost, neighbour, ncost);
+                heap.push(neighbour, ncost + heuristic(neighbour));
+            }
+
+            float oppositeCost = opposite.costOf(neighbour);
+            if (oppositeCost != Float.POSITIVE_INFINITY)
+                meeting.meet(cost[neighbour] + oppositeCost, neighbour);
+        }
+    }
+
+
+    /* The octile distance from a cell to the target */
+    public float heuristic (int cell)
+    {
+        return JumpPointSearch.octile(cell / cols, cell % cols, targetX, targetY);
+    }
+
+
+    /* Initialise the values of a cell the first time it is met in the current generation */
+    private void touch (int cell)
+    {
+        if (seen[cell] == generation)
+            return;
+        parent[cell] = -1;
+        FLOATS.setVolatile(cost, cell, Float.POSITIVE_INFINITY);
+        INTS.setVolatile(seen, cell, generation);
+    }
+
+}
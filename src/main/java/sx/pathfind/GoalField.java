@@ -0,0 +1,395 @@
+package sx.pathfind;
+
+import sx.GridGraph;
+import sx.GridMap;
+import sx.Vec2i;
+import sx.pathfind.exceptions.NoPathFound;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+
+
+public class GoalField
+{
+
+    /*
+        An instance of this class represents the field of distances to a goal shared by many robots
+        (e.g., a fleet converging on the same dock), incrementally maintained as in D* Lite.
+
+        D* Lite searches backward from the goal, hence its g and rhs values do not depend on the
+        robot position, which is only used by the heuristic to focus the search. A single field can
+        then answer the path extraction of any robot (see GoalFieldRobot), as long as the search is
+        focused on all of them: the heuristic of a position is the minimum among the estimations of
+        its distance from each robot, and the search continues until every robot is consistent.
+
+        The accumulation factor km keeps the keys into the heap lower bounds of the current ones:
+            - when robots move, the heuristic of a position decreases at most by the longest move,
+              hence km grows by the maximum distance covered by a robot since the last update;
+            - when a robot is added, the heuristic of a position decreases at most by the distance
+              between the new robot and the closest robot already into the field, hence km grows
+              by that distance.
+        Removing a robot can only increase the heuristic, hence km is not changed.
+
+        Adding a robot into a region already explored by the field only costs a path extraction.
+    */
+
+    private static final float EPSILON = 1e-3f;    // Tolerance on the sums of float costs when comparing the keys
+
+    public Vec2i goal;                              // The goal shared by the robots
+    public List<GoalFieldRobot> robots;             // The robots using the field
+    public float km;                                // Accumulation factor
+
+    public GridMap slam;                            // The current knowledge of the environment shared by the robots
+    public GridGraph graph;                         // The graph of the grid map used to expand positions
+    public int cols;                                // The number of columns of the grid map
+    public Heuristic estimator;                     // The estimation of the distance between two positions
+    public IndexedHeap heap;                        // The heap of inconsistent positions, indexed by cell (x * cols + y)
+    public float[] g;                               // The distance of each cell from the goal
+    public float[] rhs;                             // The one-step lookahead of the distance of each cell from the goal
+
+    public int[] neighbourCells, succCells;         // Buffers of the neighbours of the expanded positions
+    public float[] neighbourCosts, succCosts;       // Buffers of the costs to reach the neighbours
+    public AffectedCells affected;                  // Positions affected by a batch of SLAM changes
+
+    public PathFinderMetrics metrics;               // Listener of the work done by the field (null if disabled)
+
+    // Logger time stamp format
+    public SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
+
+
+    public GoalField (Vec2i goal, int[][] slam)
+    {
+        this(goal, new GridMap(slam));
+    }
+
+
+    public GoalField (Vec2i goal, GridMap slam)
+    {
+        this.goal = goal;
+        this.robots = new ArrayList<>();
+        this.km = 0.0f;
+
+        this.slam = slam;
+        this.graph = new GridGraph(slam);
+        this.cols = slam.cols;
+        this.estimator = Heuristic.octile(cols);
+
+        int size = slam.rows * cols;
+        this.heap = new IndexedHeap(size);
+        this.g = new float[size];
+        this.rhs = new float[size];
+        Arrays.fill(g, Float.POSITIVE_INFINITY);
+        Arrays.fill(rhs, Float.POSITIVE_INFINITY);
+
+        this.neighbourCells = new int[8];
+        this.neighbourCosts = new float[8];
+        this.succCells = new int[8];
+        this.succCosts = new float[8];
+        this.affected = new AffectedCells(slam.rows, cols);
+
+        // Init heap and values of the goal
+        int target = goal.x * cols + goal.y;
+        rhs[target] = 0.0f;
+        heap.put(target, key1(target), key2(target));
+    }
+
+
+    /* Add a robot using the field from a position */
+    public GoalFieldRobot addRobot (Vec2i position)
+    {
+        accumulate();
+
+        // The heuristic decreases at most by the distance from the closest robot
+        if (!robots.isEmpty())
+        {
+            float closest = Float.POSITIVE_INFINITY;
+            for (GoalFieldRobot robot : robots)
+                closest = Math.min(closest, heuristic(robot.current, position));
+            km += closest;
+        }
+
+        GoalFieldRobot robot = new GoalFieldRobot(this, position);
+        robots.add(robot);
+        return robot;
+    }
+
+
+    /* Remove a robot from the field (e.g., because it reached the goal) */
+    public void removeRobot (GoalFieldRobot robot)
+    {
+        robots.remove(robot);
+    }
+
+
+    /* The heuristic estimation of the distance between two positions */
+    public float heuristic (Vec2i p1, Vec2i p2)
+    {
+        return estimator.estimate(p1.x * cols + p1.y, p2.x * cols + p2.y);
+    }
+
+
+    /* The minimum estimation of the distance between the robots and a cell (0 if there are no robots) */
+    public float robotsHeuristic (int cell)
+    {
+        if (robots.isEmpty())
+            return 0.0f;
+        float min = Float.POSITIVE_INFINITY;
+        for (GoalFieldRobot robot : robots)
+            min = Math.min(min, estimator.estimate(robot.current.x * cols + robot.current.y, cell));
+        return min;
+    }
+
+
+    /* Compute the first level of the priority associated with a cell */
+    public float key1 (int cell)
+    {
+        return Math.min(g[cell], rhs[cell]) + km + robotsHeuristic(cell);
+    }
+
+
+    /* Compute the second level of the priority associated with a cell */
+    public float key2 (int cell)
+    {
+        return Math.min(g[cell], rhs[cell]);
+    }
+
+
+    /* Update the accumulation factor with the longest move made by a robot since the last update */
+    public void accumulate ()
+    {
+        float longest = 0.0f;
+        for (GoalFieldRobot robot : robots)
+        {
+            longest = Math.max(longest, heuristic(robot.last, robot.current));
+            robot.last = robot.current;
+        }
+        km += longest;
+    }
+
+
+    /* The cost of moving from a cell to a close cell (infinite from an obstacle or into a position that is not free) */
+    public float moveCost (int from, int to, float length)
+    {
+        if (slam.isObstacle(from / cols, from % cols) || !slam.isFree(to / cols, to % cols))
+            return Float.POSITIVE_INFINITY;
+        return length;
+    }
+
+
+    /* The minimum among the costs to reach the goal passing by each successor of a cell */
+    public float minSuccessor (int cell)
+    {
+        if (metrics != null)
+            metrics.rhsRecomputation();
+
+        // Moving from an obstacle is not possible
+        if (slam.isObstacle(cell / cols, cell % cols))
+            return Float.POSITIVE_INFINITY;
+
+        float min = Float.POSITIVE_INFINITY;
+        int n = graph.expand(cell, succCells, succCosts);
+        for (int k = 0; k < n; k++)
+            min = Math.min(min, succCosts[k] + g[succCells[k]]);
+        return min;
+    }
+
+
+    /* Update a cell checking its consistency */
+    public void updateVertex (int cell)
+    {
+        // Inconsistent positions are inserted into the heap or their priority is updated,
+        // while consistent ones are removed
+        if (g[cell] != rhs[cell])
+        {
+            if (metrics != null)
+            {
+                if (heap.contains(cell)) metrics.heapUpdate();
+                else metrics.heapPush();
+            }
+            heap.put(cell, key1(cell), key2(cell));
+        }
+        else
+        {
+            if (metrics != null && heap.contains(cell))
+                metrics.heapRemove();
+            heap.remove(cell);
+        }
+    }
+
+
+    /* Method used to update the SLAM shared by the robots */
+    public void updateSlam (Vec2i position, int value)
+    {
+        updateSlam(Collections.singletonList(new CellChange(position, value)));
+    }
+
+
+    /*
+        Method used to update the SLAM with many changes at once (e.g., a whole sensor scan).
+        As in DStar, the accumulation factor is updated once, and each position whose edges
+        changed has its RHS recomputed only once.
+    */
+    public void updateSlam (Collection<CellChange> changes)
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            // Apply the changes and collect the affected positions without duplicates
+            affected.nextBatch();
+            affected.apply(slam, changes);
+
+            if (affected.size == 0)
+                return;
+
+            // Update the accumulation factor once if robots already moved
+            accumulate();
+
+            // Recompute the RHS of the affected positions from their successors
+            int target = goal.x * cols + goal.y;
+            for (int k = 0; k < affected.size; k++)
+            {
+                int cell = affected.cells[k];
+                if (cell != target)
+                    rhs[cell] = minSuccessor(cell);
+                updateVertex(cell);
+            }
+        } finally {
+            if (metrics != null)
+                metrics.updateSlamLatency(System.nanoTime() - start);
+        }
+    }
+
+
+    /*
+        True if a key may not follow the key of a position, considering equal the first levels
+        that only differ by the rounding of the sums of costs (see LifelongAStar).
+    */
+    private static boolean precedes (float a1, float b1)
+    {
+        return a1 <= b1 + EPSILON;
+    }
+
+
+    /* True if the distance of some robot from the goal may not be known yet */
+    private boolean incomplete ()
+    {
+        if (heap.isEmpty())
+            return false;
+        for (GoalFieldRobot robot : robots)
+        {
+            int cell = robot.current.x * cols + robot.current.y;
+            if (precedes(heap.peekK1(), key1(cell)) || rhs[cell] > g[cell])
+                return true;
+        }
+        return false;
+    }
+
+
+    /*
+        Backward computation of the distances until the ones of all the robots are known
+        (through the process described in the D* Lite paper).
+    */
+    public void backwardPathComputation ()
+    {
+        // Keys are computed with the current positions of the robots
+        accumulate();
+
+        int target = goal.x * cols + goal.y;
+        while (incomplete())
+        {
+            int cell = heap.peekCell();
+            float newK1 = key1(cell), newK2 = key2(cell);
+
+            if (IndexedHeap.compare(heap.peekK1(), heap.peekK2(), newK1, newK2) < 0) {
+
+                heap.put(cell, newK1, newK2);
+                if (metrics != null)
+                    metrics.heapUpdate();
+                continue;
+
+            }
+
+            heap.pop();
+            if (metrics != null) {
+                metrics.heapPop();
+                metrics.nodeExpanded();
+            }
+
+            // Predecessors are the neighbours moving into the cell (and the cell itself if underconsistent)
+            int n = graph.expandAll(cell, neighbourCells, neighbourCosts);
+            if (g[cell] > rhs[cell]) {
+
+                g[cell] = rhs[cell];
+                for (int k = 0; k < n; k++) {
+                    int pred = neighbourCells[k];
+                    if (pred != target)
+                        rhs[pred] = Math.min(rhs[pred], moveCost(pred, cell, neighbourCosts[k]) + g[cell]);
+                    updateVertex(pred);
+                }
+
+            } else {
+
+                float g_old = g[cell];
+                g[cell] = Float.POSITIVE_INFINITY;
+                for (int k = 0; k <= n; k++) {
+                    int pred = k < n ? neighbourCells[k] : cell;
+                    float cost = k < n ? moveCost(pred, cell, neighbourCosts[k]) : 0.0f;
+                    if (rhs[pred] == cost + g_old && pred != target)
+                        rhs[pred] = minSuccessor(pred);
+                    updateVertex(pred);
+                }
+
+            }
+        }
+    }
+
+
+    /* Extract the currently possible path from a position to the goal */
+    public LinkedList<Vec2i> extractPath (Vec2i from) throws NoPathFound
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            int target = goal.x * cols + goal.y;
+            int cell = from.x * cols + from.y;
+            float bound = Float.POSITIVE_INFINITY;
+
+            LinkedList<Vec2i> path = new LinkedList<>();
+            path.add(from);
+            while (cell != target)
+            {
+                // Move to the successor the distance comes from (ties broken by the estimation to the goal)
+                int minCell = -1;
+                float minCost = Float.POSITIVE_INFINITY;
+                float minT = Float.POSITIVE_INFINITY;
+                int n = slam.isObstacle(cell / cols, cell % cols) ? 0 : graph.expand(cell, succCells, succCosts);
+                for (int k = 0; k < n; k++)
+                {
+                    float cost = g[succCells[k]] + succCosts[k];
+                    float air_cost = estimator.estimate(succCells[k], target) + succCosts[k];
+                    if (cost < minCost || (cost == minCost && air_cost < minT))
+                    {
+                        minCost = cost;
+                        minCell = succCells[k];
+                        minT = air_cost;
+                    }
+                }
+
+                // Distances strictly decrease towards the goal, hence the walk ends
+                // (the distance of the starting position may be known only by its RHS)
+                if (minCell == -1 || minCost == Float.POSITIVE_INFINITY || g[minCell] >= bound)
+                    throw new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found");
+                cell = minCell;
+                bound = g[cell];
+                path.add(new Vec2i(cell / cols, cell % cols));
+            }
+
+            if (metrics != null)
+                metrics.pathLength(path.size());
+            return path;
+        } finally {
+            if (metrics != null)
+                metrics.extractPathLatency(System.nanoTime() - start);
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package sx.pathfind;
+
+import sx.Vec2i;
+import sx.pathfind.exceptions.NoPathFound;
+
+import java.util.*;
+
+
+
+public class GoalFieldRobot implements PathFinder
+{
+
+    /*
+        An instance of this class represents a robot of a fleet moving towards the goal of a
+        shared GoalField. The robot only keeps its position and its path, while the distances
+        to the goal are computed and incrementally updated by the field for all the robots.
+
+        Robots are created through GoalField.addRobot.
+    */
+
+    public GoalField field;                          // The field of distances to the goal shared by the fleet
+    public Vec2i current;                            // The current position where the robot
+    public Vec2i last;                               // The position of the robot at the last update of the accumulation factor
+
+    public Set<Vec2i> covered;                       // The set of positions covered by the robot
+    public LinkedList<Vec2i> path;                   // The current minimum path to the goal
+
+
+    GoalFieldRobot (GoalField field, Vec2i position)
+    {
+        this.field = field;
+        this.current = position;
+        this.last = position;
+        this.covered = new HashSet<>();
+        this.path = new LinkedList<>();
+    }
+
+
+    @Override
+    public void extractPath() throws NoPathFound
+    {
+        path = field.extractPath(current);
+    }
+
+
+    /* Complete the distances of the field (if needed) and extract the path of the robot */
+    @Override
+    public void computePath()
+    {
+        long start = field.metrics != null ? System.nanoTime() : 0L;
+        try {
+            field.backwardPathComputation();
+            extractPath();
+        } catch (NoPathFound ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            if (field.metrics != null)
+                field.metrics.computePathLatency(System.nanoTime() - start);
+        }
+    }
+
+
+    @Override
+    public void computeStartingPath()
+    {
+        computePath();
+    }
+
+
+    /* The SLAM is shared by the fleet, hence the change is seen by all the robots */
+    @Override
+    public void updateSlam(Vec2i position, int value)
+    {
+        field.updateSlam(position, value);
+    }
+
+
+    @Override
+    public void updateSlam(Collection<CellChange> changes)
+    {
+        field.updateSlam(changes);
+    }
+
+
+    /* Inform the algorithm that the robot is doing a step to the goal */
+    @Override
+    public void step()
+    {
+        // Arrived
+        if (current.equals(field.goal))
+            return;
+        // Next step
+        path.removeFirst();
+        current = path.getFirst();
+        covered.add(current);
+    }
+
+
+    /* Return the robot current position known by the algorithm */
+    @Override
+    public Vec2i getCurrent()
+    {
+        return current;
+    }
+
+
+    /* Method to return the currently considered minimum path */
+    @Override
+    public LinkedList<Vec2i> getPath()
+    {
+        return path;
+    }
+
+
+    /* The metrics are collected by the field shared by the fleet */
+    @Override
+    public void setMetrics(PathFinderMetrics metrics)
+    {
+        field.metrics = metrics;
+    }
+
+}
@@ -0,0 +1,49 @@
+package sx.pathfind;
+
+
+
+public interface Heuristic
+{
+
+    /*
+    ================================================================================================================
+
+        Interface of the heuristic estimations of the distance between two cells of a grid map,
+        identified by their index x * cols + y (i.e., no positions are allocated to estimate a distance).
+
+        The estimation must never exceed the cost of the minimum path between the cells, and to be
+        used by D* Lite and by A* with a closed set it should also be consistent (i.e., it never
+        exceeds the cost of a move plus the estimation from the reached cell).
+
+        The built-in ones are:
+            - octile: the exact distance on an 8-connected grid without obstacles (straight moves cost 1,
+                diagonal moves cost 1.414)
+            - euclidean: the straight-line distance, scaled so that it never exceeds the 1.414 cost of
+                a diagonal move (the exact square root of 2 is slightly larger)
+            - LandmarkHeuristic: the lower bound given by the distances from a set of landmarks
+
+    ================================================================================================================
+    */
+
+    /* The estimation of the distance between two cells */
+    float estimate (int from, int to);
+
+
+    /* The octile distance on a grid with the given number of columns */
+    static Heuristic octile (int cols)
+    {
+        return (from, to) -> JumpPointSearch.octile(from / cols, from % cols, to / cols, to % cols);
+    }
+
+
+    /* The euclidean distance on a grid with the given number of columns */
+    static Heuristic euclidean (int cols)
+    {
+        final float scale = 1.414f / (float) Math.sqrt(2.0);
+        return (from, to) -> {
+            int dx = from / cols - to / cols, dy = from % cols - to % cols;
+            return scale * (float) Math.sqrt(dx * dx + dy * dy);
+        };
+    }
+
+}
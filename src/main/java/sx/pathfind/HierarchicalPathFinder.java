@@ -0,0 +1,567 @@
+package sx.pathfind;
+
+import sx.Vec2i;
+import sx.pathfind.exceptions.NoPathFound;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+
+
+public class HierarchicalPathFinder implements PathFinder
+{
+
+    /*
+        An instance of this class represents an implementation of the Hierarchical Path-Finding A*
+        algorithm presented in Botea, A., Müller, M., & Schaeffer, J. (2004). Near optimal hierarchical
+        path-finding. Journal of Game Development, 1(1), 7-28.
+
+        The grid is split into square clusters. Along the border between two adjacent clusters, each
+        maximal run of positions that can be crossed produces one transition (two for long runs) between
+        a couple of entrance positions. The entrances of the same cluster are connected by edges whose
+        cost is computed with a search restricted to the cluster. The resulting abstract graph is
+        searched first, and only the abstract path is refined into a path on the grid.
+
+        The grid is the same 8-connected grid used by AStar and DStar. Hence, transitions can also be
+        diagonal (i.e., across a border where no straight crossing exists nearby, or across the corner
+        shared by four clusters), so that the abstract graph keeps all the connections of the grid.
+
+        When the SLAM changes, only the cluster containing the changed cell is marked to be updated,
+        together with the borders the cell lays on (and then the clusters on the other side of them).
+        Their abstract edges are recomputed before the next path computation, hence the abstract graph
+        stays valid through exploration without a global rebuild.
+
+        NOTE: As every HPA*, the computed paths are near optimal but not always optimal.
+    */
+
+    public Vec2i source, goal;                       // Starting and ending positions
+    public Vec2i current;                            // The current position where the robot
+    public Set<Vec2i> covered;                       // The set of positions covered by the robot
+    public LinkedList<Vec2i> path;                   // The current path to the goal
+    public int[][] slam;                            // The current knowledge of the environment the algorithm has
+    public int rows, cols;                          // The size of the grid map
+
+    public int clusterSize;                         // The side of a cluster
+    public int clustersX, clustersY;                // The number of clusters along x and y
+
+    public Map<Integer, List<int[]>> transitions;   // Transitions (entrance, entrance, cost bits) of each border
+    public Map<Integer, Map<Integer, Float>> interEdges;        // Abstract edges between entrances of different clusters
+    public List<Map<Integer, Map<Integer, Float>>> intraEdges;  // Abstract edges between entrances of each cluster
+    public Set<Integer> dirtyBorders;               // Borders whose transitions must be recomputed
+    public Set<Integer> dirtyClusters;              // Clusters whose abstract edges must be recomputed
+
+    public List<Integer> abstractPath;              // The last abstract path computed (null if not found)
+
+    // Buffers of the searches restricted to a cluster (reset through a generation counter)
+    public float[] localCost;
+    public int[] localParent;
+    public int[] localSeen;
+    public int localGeneration;
+    public DenseHeap localHeap;
+
+    // Logger time stamp format
+    public SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
+
+
+    public HierarchicalPathFinder (Vec2i source, Vec2i goal, int[][] slam)
+    {
+        this(source, goal, slam, 16);
+    }
+
+
+    public HierarchicalPathFinder (Vec2i source, Vec2i goal, int[][] slam, int clusterSize)
+    {
+        this.source = source;
+        this.goal = goal;
+        this.current = source;
+        this.slam = slam;
+        this.rows = slam.length;
+        this.cols = slam[0].length;
+        this.covered = new HashSet<>();
+        this.path = new LinkedList<>();
+
+        this.clusterSize = clusterSize;
+        this.clustersX = (rows + clusterSize - 1) / clusterSize;
+        this.clustersY = (cols + clusterSize - 1) / clusterSize;
+
+        this.localCost = new float[rows * cols];
+        this.localParent = new int[rows * cols];
+        this.localSeen = new int[rows * cols];
+        this.localGeneration = 0;
+        this.localHeap = new DenseHeap(clusterSize * clusterSize);
+
+        // Build the whole abstract graph
+        this.transitions = new HashMap<>();
+        this.interEdges = new HashMap<>();
+        this.intraEdges = new ArrayList<>(clustersX * clustersY);
+        this.dirtyBorders = new HashSet<>();
+        this.dirtyClusters = new HashSet<>();
+        for (int c = 0; c < clustersX * clustersY; c++)
+        {
+            intraEdges.add(new HashMap<>());
+            for (int kind = 0; kind < 4; kind++)
+                dirtyBorders.add(4 * c + kind);
+            dirtyClusters.add(c);
+        }
+        refreshAbstractGraph();
+    }
+
+
+    /* The cluster a position belongs to */
+    public int clusterOf (int x, int y)
+    {
+        return (x / clusterSize) * clustersY + (y / clusterSize);
+    }
+
+
+    /*
+        Borders are identified by 4 * cluster + kind, where cluster is (cx, cy) and kind is:
+            0: the border with cluster (cx + 1, cy)
+            1: the border with cluster (cx, cy + 1)
+            2: the corner shared with cluster (cx + 1, cy + 1)
+            3: the corner shared by clusters (cx, cy + 1) and (cx + 1, cy)
+    */
+    private void buildBorder (int border)
+    {
+        int c = border / 4, kind = border % 4;
+        int cx = c / clustersY, cy = c % clustersY;
+
+        // Remove the old transitions
+        List<int[]> old = transitions.remove(border);
+        if (old != null)
+            for (int[] t : old)
+            {
+                interEdges.get(t[0]).remove(t[1]);
+                interEdges.get(t[1]).remove(t[0]);
+            }
+
+        boolean nextX = cx + 1 < clustersX, nextY = cy + 1 < clustersY;
+        if ((kind == 0 && !nextX) || (kind == 1 && !nextY) || (kind >= 2 && (!nextX || !nextY)))
+            return;
+
+        List<int[]> list = new ArrayList<>();
+        int lastX = (cx + 1) * clusterSize - 1, lastY = (cy + 1) * clusterSize - 1;
+
+        if (kind == 0)
+        {
+            // Positions along y of the border between the two clusters
+            int y0 = cy * clusterSize, y1 = Math.min(lastY + 1, cols);
+            buildBorderRuns(list, lastX, y0, y1, 1, 0);
+        }
+        else if (kind == 1)
+        {
+            // Positions along x of the border between the two clusters
+            int x0 = cx * clusterSize, x1 = Math.min(lastX + 1, rows);
+            buildBorderRuns(list, lastY, x0, x1, 0, 1);
+        }
+        else if (kind == 2)
+        {
+            if (free(lastX, lastY) && free(lastX + 1, lastY + 1))
+                list.add(new int[]{lastX * cols + lastY, (lastX + 1) * cols + lastY + 1, Float.floatToIntBits(1.414f)});
+        }
+        else
+        {
+            if (free(lastX, lastY + 1) && free(lastX + 1, lastY))
+                list.add(new int[]{lastX * cols + lastY + 1, (lastX + 1) * cols + lastY, Float.floatToIntBits(1.414f)});
+        }
+
+        // Add the new transitions
+        for (int[] t : list)
+        {
+            float cost = Float.intBitsToFloat(t[2]);
+            interEdges.computeIfAbsent(t[0], k -> new HashMap<>()).put(t[1], cost);
+            interEdges.computeIfAbsent(t[1], k -> new HashMap<>()).put(t[0], cost);
+        }
+        transitions.put(border, list);
+
+        // The entrances of the clusters around the border may be changed
+        dirtyClusters.add(c);
+        if (kind != 1) dirtyClusters.add(c + clustersY);
+        if (kind != 0) dirtyClusters.add(c + 1);
+        if (kind >= 2) dirtyClusters.add(c + clustersY + 1);
+    }
+
+
+    /*
+        Compute the transitions across a straight border.
+        The border is made by the positions (line, i) and (line + 1, i) if moving along x
+        (dx = 1, dy = 0), or by the positions (i, line) and (i, line + 1) if moving along y,
+        with i in [from, to).
+    */
+    private void buildBorderRuns (List<int[]> list, int line, int from, int to, int dx, int dy)
+    {
+        int runStart = -1;
+        for (int i = from; i <= to; i++)
+        {
+            boolean crossable = i < to && crossable(line, i, 0, dx, dy);
+            if (crossable && runStart == -1)
+                runStart = i;
+            else if (!crossable && runStart != -1)
+            {
+                // A run of crossable positions is concluded
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 <= 6)
+                    addTransition(list, line, (runStart + runEnd) / 2, 0, dx, dy, 1.0f);
+                else
+                {
+                    addTransition(list, line, runStart, 0, dx, dy, 1.0f);
+                    addTransition(list, line, runEnd, 0, dx, dy, 1.0f);
+                }
+                runStart = -1;
+            }
+        }
+
+        // Diagonal crossings where no straight crossing exists at both ends
+        for (int i = from; i < to; i++)
+            for (int d = -1; d < 2; d += 2)
+                if (i + d >= from && i + d < to && crossable(line, i, d, dx, dy)
+                        && !crossable(line, i, 0, dx, dy) && !crossable(line, i + d, 0, dx, dy))
+                    addTransition(list, line, i, d, dx, dy, 1.414f);
+    }
+
+
+    /* Check if the border can be crossed from position i of the first side to position i + shift of the second side */
+    private boolean crossable (int line, int i, int shift, int dx, int dy)
+    {
+        if (dx == 1)
+            return free(line, i) && free(line + 1, i + shift);
+        return free(i, line) && free(i + shift, line + 1);
+    }
+
+
+    private void addTransition (List<int[]> list, int line, int i, int shift, int dx, int dy, float cost)
+    {
+        if (dx == 1)
+            list.add(new int[]{line * cols + i, (line + 1) * cols + i + shift, Float.floatToIntBits(cost)});
+        else
+            list.add(new int[]{i * cols + line, (i + shift) * cols + line + 1, Float.floatToIntBits(cost)});
+    }
+
+
+    /* Collect the entrances of a cluster from the transitions of the borders around it */
+    private Set<Integer> entrancesOf (int c)
+    {
+        Set<Integer> entrances = new HashSet<>();
+        int cx = c / clustersY, cy = c % clustersY;
+        for (int dx = -1; dx < 1; dx++)
+            for (int dy = -1; dy < 1; dy++)
+            {
+                if (cx + dx < 0 || cy + dy < 0)
+                    continue;
+                int owner = (cx + dx) * clustersY + (cy + dy);
+                for (int kind = 0; kind < 4; kind++)
+                {
+                    List<int[]> list = transitions.get(4 * owner + kind);
+                    if (list == null)
+                        continue;
+                    for (int[] t : list)
+                    {
+                        if (clusterOf(t[0] / cols, t[0] % cols) == c) entrances.add(t[0]);
+                        if (clusterOf(t[1] / cols, t[1] % cols) == c) entrances.add(t[1]);
+                    }
+                }
+            }
+        return entrances;
+    }
+
+
+    /* Recompute the abstract edges between the entrances of a cluster */
+    private void buildCluster (int c)
+    {
+        Map<Integer, Map<Integer, Float>> edges = new HashMap<>();
+        Set<Integer> entrances = entrancesOf(c);
+        for (int e : entrances)
+        {
+            Map<Integer, Float> adjacency = new HashMap<>();
+            localSearch(e, c, -1);
+            for (int other : entrances)
+                if (other != e && localSeen[other] == localGeneration && localCost[other] != Float.POSITIVE_INFINITY)
+                    adjacency.put(other, localCost[other]);
+            edges.put(e, adjacency);
+        }
+        intraEdges.set(c, edges);
+    }
+
+
+    /* Recompute the borders and the clusters affected by changes in the SLAM */
+    public void refreshAbstractGraph ()
+    {
+        for (int border : dirtyBorders)
+            buildBorder(border);
+        dirtyBorders.clear();
+        for (int c : dirtyClusters)
+            buildCluster(c);
+        dirtyClusters.clear();
+    }
+
+
+    /*
+        Dijkstra search restricted to a cluster starting from a position.
+        If a target is provided (i.e., not -1) the search stops as soon as it is reached.
+    */
+    private void localSearch (int start, int c, int target)
+    {
+        if (++localGeneration == Integer.MAX_VALUE)
+        {
+            Arrays.fill(localSeen, 0);
+            localGeneration = 1;
+        }
+        localHeap.clear();
+
+        int minX = (c / clustersY) * clusterSize, maxX = Math.min(minX + clusterSize, rows);
+        int minY = (c % clustersY) * clusterSize, maxY = Math.min(minY + clusterSize, cols);
+
+        localSeen[start] = localGeneration;
+        localCost[start] = 0.0f;
+        localParent[start] = -1;
+        localHeap.push(start, 0.0f);
+
+        while (!localHeap.isEmpty())
+        {
+            float dist = localHeap.peekPriority();
+            int cell = localHeap.pop();
+            if (dist > localCost[cell])
+                continue;
+            if (cell == target)
+                return;
+
+            int x = cell / cols, y = cell % cols;
+            for (int i = Math.max(x - 1, minX); i < Math.min(x + 2, maxX); i++)
+                for (int j = Math.max(y - 1, minY); j < Math.min(y + 2, maxY); j++)
+                {
+                    if ((i == x && j == y) || slam[i][j] != 0)
+                        continue;
+                    int neighbour = i * cols + j;
+                    float ncost = dist + ((i == x || j == y) ? 1.0f : 1.414f);
+                    if (localSeen[neighbour] != localGeneration || ncost < localCost[neighbour])
+                    {
+                        localSeen[neighbour] = localGeneration;
+                        localCost[neighbour] = ncost;
+                        localParent[neighbour] = cell;
+                        localHeap.push(neighbour, ncost);
+                    }
+                }
+        }
+    }
+
+
+    /* Distances from a position to the entrances of its cluster */
+    private Map<Integer, Float> connect (int cell)
+    {
+        int c = clusterOf(cell / cols, cell % cols);
+        Map<Integer, Float> edges = new HashMap<>();
+        localSearch(cell, c, -1);
+        for (int e : intraEdges.get(c).keySet())
+            if (localSeen[e] == localGeneration && localCost[e] != Float.POSITIVE_INFINITY)
+                edges.put(e, localCost[e]);
+        return edges;
+    }
+
+
+    /* Search the abstract graph from the current position to the goal */
+    public void abstractSearch ()
+    {
+        abstractPath = null;
+        int start = current.x * cols + current.y, target = goal.x * cols + goal.y;
+        if (slam[current.x][current.y] == 1 || slam[goal.x][goal.y] != 0)
+            return;
+
+        // Same cluster: try a local path first
+        int startCluster = clusterOf(current.x, current.y), targetCluster = clusterOf(goal.x, goal.y);
+        if (startCluster == targetCluster)
+        {
+            localSearch(start, startCluster, target);
+            if (localSeen[target] == localGeneration)
+            {
+                abstractPath = new ArrayList<>(List.of(start, target));
+                return;
+            }
+        }
+
+        // Temporary edges of the current position and of the goal
+        Map<Integer, Float> startEdges = connect(start);
+        Map<Integer, Float> targetEdges = connect(target);
+
+        Map<Integer, Float> cost = new HashMap<>();
+        Map<Integer, Integer> parent = new HashMap<>();
+        Set<Integer> closed = new HashSet<>();
+        DenseHeap heap = new DenseHeap(64);
+        cost.put(start, 0.0f);
+        heap.push(start, JumpPointSearch.octile(current.x, current.y, goal.x, goal.y));
+
+        while (!heap.isEmpty())
+        {
+            int node = heap.pop();
+            if (!closed.add(node))
+                continue;
+            if (node == target)
+                break;
+
+            float dist = cost.get(node);
+            List<Map<Integer, Float>> adjacencies = new ArrayList<>(3);
+            if (node == start)
+                adjacencies.add(startEdges);
+            else
+            {
+                Map<Integer, Float> intra = intraEdges.get(clusterOf(node / cols, node % cols)).get(node);
+                if (intra != null) adjacencies.add(intra);
+                if (targetEdges.containsKey(node))
+                    adjacencies.add(Map.of(target, targetEdges.get(node)));
+            }
+            Map<Integer, Float> inter = interEdges.get(node);
+            if (inter != null) adjacencies.add(inter);
+
+            for (Map<Integer, Float> adjacency : adjacencies)
+                for (Map.Entry<Integer, Float> edge : adjacency.entrySet())
+                {
+                    int next = edge.getKey();
+                    float ncost = dist + edge.getValue();
+                    if (closed.contains(next) || ncost >= cost.getOrDefault(next, Float.POSITIVE_INFINITY))
+                        continue;
+                    cost.put(next, ncost);
+                    parent.put(next, node);
+                    heap.push(next, ncost + JumpPointSearch.octile(next / cols, next % cols, goal.x, goal.y));
+                }
+        }
+
+        if (!closed.contains(target))
+            return;
+
+        abstractPath = new ArrayList<>();
+        for (Integer node = target; node != null; node = parent.get(node))
+            abstractPath.add(node);
+        Collections.reverse(abstractPath);
+    }
+
+
+    /* Refine the abstract path into a path on the grid */
+    @Override
+    public void extractPath() throws NoPathFound
+    {
+        if (abstractPath == null)
+            throw new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found");
+
+        LinkedList<Vec2i> path = new LinkedList<>();
+        path.add(new Vec2i(abstractPath.get(0) / cols, abstractPath.get(0) % cols));
+
+        for (int k = 1; k < abstractPath.size(); k++)
+        {
+            int from = abstractPath.get(k - 1), to = abstractPath.get(k);
+            int c = clusterOf(from / cols, from % cols);
+
+            // Transition between adjacent clusters
+            if (c != clusterOf(to / cols, to % cols))
+            {
+                path.add(new Vec2i(to / cols, to % cols));
+                continue;
+            }
+
+            // Path inside a cluster
+            localSearch(from, c, to);
+            LinkedList<Vec2i> segment = new LinkedList<>();
+            for (int cell = to; cell != from; cell = localParent[cell])
+                segment.addFirst(new Vec2i(cell / cols, cell % cols));
+            path.addAll(segment);
+        }
+        this.path = path;
+    }
+
+
+    @Override
+    public void computePath()
+    {
+        computeStartingPath();
+    }
+
+
+    @Override
+    public void computeStartingPath()
+    {
+        refreshAbstractGraph();
+        abstractSearch();
+        try {
+            extractPath();
+        } catch (NoPathFound ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+
+    /*
+        Method used to update the SLAM (i.e., the view the robot has of the environment).
+        The changed cell affects the abstract edges of its cluster and, if it lays on the border
+        of the cluster, the transitions across that border.
+    */
+    @Override
+    public void updateSlam(Vec2i position, int value)
+    {
+        int x = position.x, y = position.y;
+        if (slam[x][y] == value)
+            return;
+        slam[x][y] = value;
+
+        int cx = x / clusterSize, cy = y / clusterSize;
+        int c = cx * clustersY + cy;
+        dirtyClusters.add(c);
+
+        boolean firstX = x == cx * clusterSize, lastX = x == Math.min((cx + 1) * clusterSize, rows) - 1;
+        boolean firstY = y == cy * clusterSize, lastY = y == Math.min((cy + 1) * clusterSize, cols) - 1;
+
+        if (lastX) dirtyBorders.add(4 * c);
+        if (firstX && cx > 0) dirtyBorders.add(4 * (c - clustersY));
+        if (lastY) dirtyBorders.add(4 * c + 1);
+        if (firstY && cy > 0) dirtyBorders.add(4 * (c - 1) + 1);
+
+        // Corners of the cluster
+        if (lastX && lastY) dirtyBorders.add(4 * c + 2);
+        if (firstX && firstY && cx > 0 && cy > 0) dirtyBorders.add(4 * (c - clustersY - 1) + 2);
+        if (lastX && firstY && cy > 0) dirtyBorders.add(4 * (c - 1) + 3);
+        if (firstX && lastY && cx > 0) dirtyBorders.add(4 * (c - clustersY) + 3);
+    }
+
+
+    /* Inform the algorithm that the robot is doing a step to the goal */
+    @Override
+    public void step()
+    {
+        // Arrived
+        if (current.equals(goal))
+            return;
+        // Next step
+        path.removeFirst();
+        current = path.getFirst();
+        covered.add(current);
+    }
+
+
+    /* Return the robot current position known by the algorithm */
+    @Override
+    public Vec2i getCurrent()
+    {
+        return current;
+    }
+
+
+    /* The paths are near optimal, but no bound of their suboptimality is known */
+    @Override
+    public float getSuboptimalityBound ()
+    {
+        return Float.POSITIVE_INFINITY;
+    }
+
+
+    /* Method to return the currently considered path */
+    @Override
+    public LinkedList<Vec2i> getPath()
+    {
+        return path;
+    }
+
+
+    /* Check if a position is inside the grid and free */
+    private boolean free (int x, int y)
+    {
+        return x >= 0 && x < rows && y >= 0 && y < cols && slam[x][y] == 0;
+    }
+
+}
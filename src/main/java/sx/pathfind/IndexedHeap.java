@@ -0,0 +1,201 @@
+package sx.pathfind;
+
+import java.util.Arrays;
+
+
+
+public class IndexedHeap
+{
+
+    /*
+        An instance of this class represents an indexed binary min-heap of grid cells
+        with the two-level keys (k1, k2) used by D* Lite.
+
+        The heap position of every cell is stored in a flat array indexed by cell, so that
+        checking whether a cell is into the heap costs O(1), and updating or removing
+        it costs O(log n) (instead of the linear scan of PriorityQueue.remove).
+
+        NOTE: A cell can be into the heap only once.
+    */
+
+    public float[] k1, k2;              // The keys of each entry
+    public int[] cells;                 // The cell index of each entry
+    public int[] positions;             // The position into the heap of each cell (-1 if not into the heap)
+    public int size;                    // The number of entries currently into the heap
+
+
+    public IndexedHeap (int nCells)
+    {
+        int capacity = Math.max(Math.min(nCells, 1024), 16);
+        this.k1 = new float[capacity];
+        this.k2 = new float[capacity];
+        this.cells = new int[capacity];
+        this.positions = new int[nCells];
+        Arrays.fill(positions, -1);
+        this.size = 0;
+    }
+
+
+    /* Remove all the entries (only the positions of the cells into the heap are reset) */
+    public void clear ()
+    {
+        for (int i = 0; i < size; i++)
+            positions[cells[i]] = -1;
+        size = 0;
+    }
+
+
+    public boolean isEmpty ()
+    {
+        return size == 0;
+    }
+
+
+    public boolean contains (int cell)
+    {
+        return positions[cell] != -1;
+    }
+
+
+    /* The cell with minimum key */
+    public int peekCell ()
+    {
+        return cells[0];
+    }
+
+
+    public float peekK1 ()
+    {
+        return k1[0];
+    }
+
+
+    public float peekK2 ()
+    {
+        return k2[0];
+    }
+
+
+    /* Insert a cell into the heap or update its keys if it is already there */
+    public void put (int cell, float key1, float key2)
+    {
+        int i = positions[cell];
+        if (i == -1)
+        {
+            if (size == cells.length)
+                grow();
+            i = size++;
+            set(i, cell, key1, key2);
+            siftUp(i);
+            return;
+        }
+
+        boolean decreased = compare(key1, key2, k1[i], k2[i]) < 0;
+        k1[i] = key1;
+        k2[i] = key2;
+        if (decreased)
+            siftUp(i);
+        else
+            siftDown(i);
+    }
+
+
+    /* Remove and return the cell with minimum key */
+    public int pop ()
+    {
+        int top = cells[0];
+        removeAt(0);
+        return top;
+    }
+
+
+    /* Remove a cell from the heap (if present) */
+    public void remove (int cell)
+    {
+        int i = positions[cell];
+        if (i != -1)
+            removeAt(i);
+    }
+
+
+    /* Compare two keys lexicographically */
+    public static int compare (float a1, float a2, float b1, float b2)
+    {
+        if (a1 == b1) {
+            if (a2 == b2)
+                return 0;
+            return a2 < b2 ? -1 : 1;
+        }
+        return a1 < b1 ? -1 : 1;
+    }
+
+
+    private void removeAt (int i)
+    {
+        positions[cells[i]] = -1;
+        int last = --size;
+        if (i == last)
+            return;
+
+        set(i, cells[last], k1[last], k2[last]);
+        if (i > 0 && compare(k1[i], k2[i], k1[(i - 1) >>> 1], k2[(i - 1) >>> 1]) < 0)
+            siftUp(i);
+        else
+            siftDown(i);
+    }
+
+
+    private void siftUp (int i)
+    {
+        int cell = cells[i];
+        float key1 = k1[i], key2 = k2[i];
+        while (i > 0)
+        {
+            int p = (i - 1) >>> 1;
+            if (compare(key1, key2, k1[p], k2[p]) >= 0)
+                break;
+            set(i, cells[p], k1[p], k2[p]);
+            i = p;
+        }
+        set(i, cell, key1, key2);
+    }
+
+
+    private void siftDown (int i)
+    {
+        int cell = cells[i];
+        float key1 = k1[i], key2 = k2[i];
+        int half = size >>> 1;
+        while (i < half)
+        {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && compare(k1[right], k2[right], k1[child], k2[child]) < 0)
+                child = right;
+            if (compare(k1[child], k2[child], key1, key2) >= 0)
+                break;
+            set(i, cells[child], k1[child], k2[child]);
+            i = child;
+        }
+        set(i, cell, key1, key2);
+    }
+
+
+    private void set (int i, int cell, float key1, float key2)
+    {
+        cells[i] = cell;
+        k1[i] = key1;
+        k2[i] = key2;
+        positions[cell] = i;
+    }
+
+
+    private void grow ()
+    {
+        int capacity = Math.min(cells.length << 1, positions.length);
+        k1 = Arrays.copyOf(k1, capacity);
+        k2 = Arrays.copyOf(k2, capacity);
+        cells = Arrays.copyOf(cells, capacity);
+    }
+
+}
@@ -0,0 +1,448 @@
+package sx.pathfind;
+
+import sx.Vec2i;
+import sx.pathfind.exceptions.NoPathFound;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+
+
+public class JumpPointSearch implements PathFinder
+{
+
+    /*
+        An instance of this class represents an implementation of the Jump Point Search algorithm
+        presented in Harabor, D., & Grastien, A. (2011). Online graph pruning for pathfinding on grid
+        maps. Proceedings of the AAAI Conference on Artificial Intelligence, 25(1), 1114-1119.
+
+        The grid is the same 8-connected grid used by AStar and DStar (diagonal moves are allowed even
+        close to obstacles), where straight moves cost 1 and diagonal moves cost 1.414. Instead of
+        expanding all the neighbours of a position, the algorithm jumps along straight and diagonal
+        lines and only stops on positions with forced neighbours (i.e., jump points).
+
+        If the JPS+ mode is enabled, the straight jumps are precomputed for every cell in each of the
+        four straight directions, so that a straight jump costs O(1) and a diagonal jump only costs
+        one lookup per diagonal step. When the SLAM changes, only the tables of the rows and columns
+        around the changed cell are invalidated, and they are recomputed before the next search.
+
+        The search state is kept in flat arrays indexed by x * cols + y and reset in O(1) through
+        a generation counter as done by DenseAStar.
+    */
+
+    public DenseHeap heap;                          // The heap of jump points to expand
+    public Vec2i source, goal;                       // Starting and ending positions
+    public Vec2i current;                            // The current position where the robot
+
+    public Set<Vec2i> covered;                       // The set of positions covered by the robot
+    public LinkedList<Vec2i> path;                   // The current minimum path to the goal
+    public int[][] slam;                            // The current knowledge of the environment the algorithm has
+    public int rows, cols;                          // The size of the grid map
+
+    public int[] parent;                            // Parent jump point of each jump point (-1 if none)
+    public float[] cost;                            // Minimum distance found so far from the robot position to each cell
+    public int[] seen;                              // Generation in which parent and cost of a cell were set
+    public int[] closed;                            // Generation in which a cell has been expanded
+    public int generation;                          // The current search generation
+
+    public boolean precompute;                      // If true the JPS+ mode is used
+    public int[] jumpXPos, jumpXNeg;                // JPS+ straight jumps along x (i.e., in a column) in positive and negative direction
+    public int[] jumpYPos, jumpYNeg;                // JPS+ straight jumps along y (i.e., in a row) in positive and negative direction
+                                                    // NOTE: A positive value k means that a jump point is reached after k steps,
+                                                    // while a value -k means that an obstacle or the border is met after k free steps.
+    public boolean[] dirtyRows, dirtyColumns;       // Rows and columns whose JPS+ tables must be recomputed
+
+    // Logger time stamp format
+    public SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
+
+
+    public JumpPointSearch (Vec2i source, Vec2i goal, int[][] slam)
+    {
+        this(source, goal, slam, false);
+    }
+
+
+    public JumpPointSearch (Vec2i source, Vec2i goal, int[][] slam, boolean precompute)
+    {
+        this.source = source;
+        this.goal = goal;
+        this.current = source;
+        this.slam = slam;
+        this.rows = slam.length;
+        this.cols = slam[0].length;
+
+        this.path = new LinkedList<>();
+        this.covered = new HashSet<>();
+
+        int size = rows * cols;
+        this.parent = new int[size];
+        this.cost = new float[size];
+        this.seen = new int[size];
+        this.closed = new int[size];
+        this.heap = new DenseHeap(1024);
+        this.generation = 0;
+
+        this.precompute = precompute;
+        if (precompute)
+        {
+            this.jumpXPos = new int[size];
+            this.jumpXNeg = new int[size];
+            this.jumpYPos = new int[size];
+            this.jumpYNeg = new int[size];
+            this.dirtyRows = new boolean[rows];
+            this.dirtyColumns = new boolean[cols];
+            for (int x = 0; x < rows; x++)
+                buildRow(x);
+            for (int y = 0; y < cols; y++)
+                buildColumn(y);
+        }
+
+        reset();
+    }
+
+
+    /*
+        This method reset the computed path after a change in the environment
+        and prepare the algorithm to a further path computation.
+    */
+    public void reset ()
+    {
+        if (++generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+        heap.clear();
+    }
+
+
+    /* Inform the algorithm that the robot is doing a step to the goal */
+    @Override
+    public void step()
+    {
+        // Arrived
+        if (current.equals(goal))
+            return;
+        // Next step
+        path.removeFirst();
+        current = path.getFirst();
+        covered.add(current);
+    }
+
+
+    /*
+        Backward reconstruction of minimum path from current robot position to goal position.
+        Consecutive jump points are always on the same straight or diagonal line, hence the
+        cells between them are added to the path.
+    */
+    @Override
+    public void extractPath() throws NoPathFound
+    {
+        int goalCell = goal.x * cols + goal.y;
+        if (seen[goalCell] != generation || cost[goalCell] == Float.POSITIVE_INFINITY)
+            throw new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found");
+
+        LinkedList<Vec2i> path = new LinkedList<>();
+        int x = goal.x, y = goal.y;
+        path.addFirst(new Vec2i(x, y));
+
+        for (int cell = parent[goalCell]; cell != -1; cell = parent[cell])
+        {
+            int px = cell / cols, py = cell % cols;
+            int dx = Integer.signum(px - x), dy = Integer.signum(py - y);
+            while (x != px || y != py)
+            {
+                x += dx;
+                y += dy;
+                path.addFirst(new Vec2i(x, y));
+            }
+        }
+        this.path = path;
+    }
+
+
+    @Override
+    public void computePath()
+    {
+        reset();
+        computeStartingPath();
+    }
+
+
+    @Override
+    public void computeStartingPath()
+    {
+        if (precompute)
+            rebuildDirtyTables();
+
+        int goalCell = goal.x * cols + goal.y;
+        int start = current.x * cols + current.y;
+
+        touch(start);
+        cost[start] = 0.0f;
+        heap.push(start, octile(current.x, current.y, goal.x, goal.y));
+
+        // Moving from an obstacle is not possible
+        if (slam[current.x][current.y] == 1)
+            heap.clear();
+
+        while (!heap.isEmpty())
+        {
+            int cell = heap.pop();
+            if (closed[cell] == generation)
+                continue;
+            closed[cell] = generation;
+
+            if (cell == goalCell)
+                break;
+
+            int x = cell / cols, y = cell % cols;
+
+            // The starting position has no direction, hence all the neighbours are considered
+            if (parent[cell] == -1)
+            {
+                for (int dx = -1; dx < 2; dx++)
+                    for (int dy = -1; dy < 2; dy++)
+                        if (dx != 0 || dy != 0)
+                            expand(cell, x, y, dx, dy);
+                continue;
+            }
+
+            // Direction of the movement from the parent jump point
+            int dx = Integer.signum(x - parent[cell] / cols);
+            int dy = Integer.signum(y - parent[cell] % cols);
+
+            if (dx != 0 && dy != 0)
+            {
+                // Diagonal movement: natural neighbours and forced neighbours
+                expand(cell, x, y, dx, 0);
+                expand(cell, x, y, 0, dy);
+                expand(cell, x, y, dx, dy);
+                if (!walkable(x - dx, y))
+                    expand(cell, x, y, -dx, dy);
+                if (!walkable(x, y - dy))
+                    expand(cell, x, y, dx, -dy);
+            }
+            else if (dx != 0)
+            {
+                // Movement along x: natural neighbour and forced neighbours
+                expand(cell, x, y, dx, 0);
+                if (!walkable(x, y + 1))
+                    expand(cell, x, y, dx, 1);
+                if (!walkable(x, y - 1))
+                    expand(cell, x, y, dx, -1);
+            }
+            else
+            {
+                // Movement along y: natural neighbour and forced neighbours
+                expand(cell, x, y, 0, dy);
+                if (!walkable(x + 1, y))
+                    expand(cell, x, y, 1, dy);
+                if (!walkable(x - 1, y))
+                    expand(cell, x, y, -1, dy);
+            }
+        }
+
+        try {
+            extractPath();
+        } catch (NoPathFound ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+
+    /* Jump from a position in a direction and eventually enqueue the jump point found */
+    private void expand (int cell, int x, int y, int dx, int dy)
+    {
+        int jumpPoint = dx != 0 && dy != 0 ? jumpDiagonal(x, y, dx, dy) : jumpStraight(x, y, dx, dy);
+        if (jumpPoint == -1 || closed[jumpPoint] == generation)
+            return;
+
+        int jx = jumpPoint / cols, jy = jumpPoint % cols;
+        float ncost = cost[cell] + octile(x, y, jx, jy);
+        touch(jumpPoint);
+        if (ncost < cost[jumpPoint])
+        {
+            cost[jumpPoint] = ncost;
+            parent[jumpPoint] = cell;
+            heap.push(jumpPoint, ncost + octile(jx, jy, goal.x, goal.y));
+        }
+    }
+
+
+    /* Jump along a diagonal line and return the jump point found (-1 if none) */
+    private int jumpDiagonal (int x, int y, int dx, int dy)
+    {
+        while (true)
+        {
+            x += dx;
+            y += dy;
+            if (!walkable(x, y))
+                return -1;
+            if (x == goal.x && y == goal.y)
+                return x * cols + y;
+
+            // Forced neighbours
+            if ((walkable(x - dx, y + dy) && !walkable(x - dx, y)) || (walkable(x + dx, y - dy) && !walkable(x, y - dy)))
+                return x * cols + y;
+
+            // A jump point is reachable through a straight line
+            if (jumpStraight(x, y, dx, 0) != -1 || jumpStraight(x, y, 0, dy) != -1)
+                return x * cols + y;
+        }
+    }
+
+
+    /* Jump along a straight line and return the jump point found (-1 if none) */
+    private int jumpStraight (int x, int y, int dx, int dy)
+    {
+        if (precompute)
+        {
+            int jump = dx > 0 ? jumpXPos[x * cols + y] : dx < 0 ? jumpXNeg[x * cols + y] : dy > 0 ? jumpYPos[x * cols + y] : jumpYNeg[x * cols + y];
+            int reach = Math.abs(jump);
+
+            // The goal lays on the line before the jump point or the obstacle
+            int steps = dx != 0 ? (goal.x - x) * dx : (goal.y - y) * dy;
+            if ((dx != 0 ? goal.y == y : goal.x == x) && steps > 0 && steps <= reach)
+                return goal.x * cols + goal.y;
+
+            return jump > 0 ? (x + jump * dx) * cols + (y + jump * dy) : -1;
+        }
+
+        while (true)
+        {
+            x += dx;
+            y += dy;
+            if (!walkable(x, y))
+                return -1;
+            if ((x == goal.x && y == goal.y) || isForced(x, y, dx, dy))
+                return x * cols + y;
+        }
+    }
+
+
+    /* Check if a position reached with a straight movement has forced neighbours */
+    private boolean isForced (int x, int y, int dx, int dy)
+    {
+        if (dx != 0)
+            return (walkable(x + dx, y + 1) && !walkable(x, y + 1)) || (walkable(x + dx, y - 1) && !walkable(x, y - 1));
+        return (walkable(x + 1, y + dy) && !walkable(x + 1, y)) || (walkable(x - 1, y + dy) && !walkable(x - 1, y));
+    }
+
+
+    /* Check if a position is inside the grid and free */
+    private boolean walkable (int x, int y)
+    {
+        return x >= 0 && x < rows && y >= 0 && y < cols && slam[x][y] == 0;
+    }
+
+
+    /* Initialise the values of a cell the first time it is met in the current generation */
+    private void touch (int cell)
+    {
+        if (seen[cell] == generation)
+            return;
+        seen[cell] = generation;
+        parent[cell] = -1;
+        cost[cell] = Float.POSITIVE_INFINITY;
+    }
+
+
+    /* Compute the JPS+ straight jumps along y of a row */
+    private void buildRow (int x)
+    {
+        for (int y = cols - 1; y >= 0; y--)
+            jumpYPos[x * cols + y] = nextJump(x, y, 0, 1, jumpYPos);
+        for (int y = 0; y < cols; y++)
+            jumpYNeg[x * cols + y] = nextJump(x, y, 0, -1, jumpYNeg);
+    }
+
+
+    /* Compute the JPS+ straight jumps along x of a column */
+    private void buildColumn (int y)
+    {
+        for (int x = rows - 1; x >= 0; x--)
+            jumpXPos[x * cols + y] = nextJump(x, y, 1, 0, jumpXPos);
+        for (int x = 0; x < rows; x++)
+            jumpXNeg[x * cols + y] = nextJump(x, y, -1, 0, jumpXNeg);
+    }
+
+
+    /* Compute the straight jump of a position knowing the one of the next position in the same direction */
+    private int nextJump (int x, int y, int dx, int dy, int[] table)
+    {
+        int nx = x + dx, ny = y + dy;
+        if (!walkable(x, y) || !walkable(nx, ny))
+            return 0;
+        if (isForced(nx, ny, dx, dy))
+            return 1;
+        int next = table[nx * cols + ny];
+        return next > 0 ? next + 1 : next - 1;
+    }
+
+
+    /* Recompute the JPS+ tables of rows and columns affected by changes in the SLAM */
+    private void rebuildDirtyTables ()
+    {
+        for (int x = 0; x < rows; x++)
+            if (dirtyRows[x])
+            {
+                buildRow(x);
+                dirtyRows[x] = false;
+            }
+        for (int y = 0; y < cols; y++)
+            if (dirtyColumns[y])
+            {
+                buildColumn(y);
+                dirtyColumns[y] = false;
+            }
+    }
+
+
+    /*
+        Method used to update the SLAM (i.e., the view the robot has
+        of the environment).
+        In JPS+ mode, the changed cell can only affect the jumps of its row and column
+        and of the rows and columns next to them (where its forced neighbours are).
+    */
+    @Override
+    public void updateSlam(Vec2i position, int value)
+    {
+        if (slam[position.x][position.y] == value)
+            return;
+        slam[position.x][position.y] = value;
+
+        if (!precompute)
+            return;
+        for (int x = Math.max(position.x - 1, 0); x < Math.min(position.x + 2, rows); x++)
+            dirtyRows[x] = true;
+        for (int y = Math.max(position.y - 1, 0); y < Math.min(position.y + 2, cols); y++)
+            dirtyColumns[y] = true;
+    }
+
+
+    /* Return the robot current position known by the algorithm */
+    @Override
+    public Vec2i getCurrent()
+    {
+        return current;
+    }
+
+
+    /* Method to return the currently considered minimum path */
+    @Override
+    public LinkedList<Vec2i> getPath()
+    {
+        return path;
+    }
+
+
+    /* The octile distance between two positions (i.e., the distance on a grid without obstacles) */
+    public static float octile (int x1, int y1, int x2, int y2)
+    {
+        int dx = Math.abs(x1 - x2), dy = Math.abs(y1 - y2);
+        return dx > dy ? 1.414f * dy + (dx - dy) : 1.414f * dx + (dy - dx);
+    }
+
+}
@@ -0,0 +1,269 @@
+package sx.pathfind;
+
+import sx.GridGraph;
+import sx.GridMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+
+
+public class LandmarkHeuristic implements Heuristic
+{
+
+    /*
+        An instance of this class represents the landmark heuristic of the ALT algorithm
+        presented in Goldberg, A. V., & Harrelson, C. (2005). Computing the shortest path:
+        A search meets graph theory. Proceedings of the sixteenth annual ACM-SIAM symposium
+        on Discrete algorithms, 156-165.
+
+        The exact distances from k landmarks to every cell are precomputed with Dijkstra.
+        Because of the triangle inequality, |d(L, a) - d(L, b)| is a lower bound of the
+        distance between a and b for every landmark L, and the maximum over the landmarks
+        (and the octile distance) is an admissible and consistent heuristic. Differently from
+        the euclidean distance, it accounts for the walls, hence it is much stronger in maps
+        made by corridors and rooms. The landmarks are selected far from each other (i.e., each
+        new landmark is the cell farthest from the ones already selected).
+
+        The tables can be saved into a binary file and loaded again for the same map.
+
+        NOTE: The heuristic stays admissible if new obstacles are found, but not if obstacles
+        are removed. In optimistic mode the distances are computed considering the unknown cells
+        as free, so that the heuristic stays admissible while the environment is explored.
+    */
+
+    private static final int MAGIC = 0x414C5431;   // "ALT1"
+
+    public int rows, cols;                          // The size of the grid map
+    public int[] landmarks;                         // The cell of each landmark
+    public float[][] distances;                     // The distance from each landmark to each cell (infinite if unreachable)
+    public boolean optimistic;                      // True if the unknown cells were considered free
+    public long checksum;                           // Checksum of the cells of the grid map the tables refer to
+
+
+    private LandmarkHeuristic (int rows, int cols, int k, boolean optimistic, long checksum)
+    {
+        this.rows = rows;
+        this.cols = cols;
+        this.landmarks = new int[k];
+        this.distances = new float[k][];
+        this.optimistic = optimistic;
+        this.checksum = checksum;
+    }
+
+
+    /* Select k landmarks on the map and compute their distance tables */
+    public LandmarkHeuristic (GridMap map, int k, boolean optimistic)
+    {
+        this(map.rows, map.cols, k, optimistic, checksum(map, optimistic));
+
+        GridGraph graph = new GridGraph(map);
+        int size = rows * cols;
+
+        // The first landmark is the cell farthest from the first traversable cell
+        int first = -1;
+        for (int cell = 0; cell < size && first == -1; cell++)
+            if (traversable(map, cell))
+                first = cell;
+        if (first == -1)
+            throw new IllegalArgumentException("The grid map has no traversable cells");
+
+        float[] closest = new float[size];
+        Arrays.fill(closest, Float.POSITIVE_INFINITY);
+        float[] fromFirst = dijkstra(graph, first);
+
+        for (int l = 0; l < k; l++)
+        {
+            // The farthest reachable cell from the landmarks already selected
+            float[] reference = l == 0 ? fromFirst : closest;
+            int farthest = first;
+            float max = -1.0f;
+            for (int cell = 0; cell < size; cell++)
+                if (reference[cell] != Float.POSITIVE_INFINITY && reference[cell] > max)
+                {
+                    max = reference[cell];
+                    farthest = cell;
+                }
+
+            landmarks[l] = farthest;
+            distances[l] = dijkstra(graph, farthest);
+            for (int cell = 0; cell < size; cell++)
+                if (l == 0 || closest[cell] != Float.POSITIVE_INFINITY)
+                    closest[cell] = Math.min(closest[cell], distances[l][cell]);
+        }
+    }
+
+
+    /* The estimation of the distance between two positions */
+    public float estimate (int x1, int y1, int x2, int y2)
+    {
+        int a = x1 * cols + y1, b = x2 * cols + y2;
+        float best = JumpPointSearch.octile(x1, y1, x2, y2);
+        for (float[] table : distances)
+        {
+            float da = table[a], db = table[b];
+            if (da == Float.POSITIVE_INFINITY || db == Float.POSITIVE_INFINITY)
+                continue;
+            float diff = da > db ? da - db : db - da;
+            if (diff > best)
+                best = diff;
+        }
+        return best;
+    }
+
+
+    @Override
+    public float estimate (int from, int to)
+    {
+        return estimate(from / cols, from % cols, to / cols, to % cols);
+    }
+
+
+    /* Distances from a cell to every other cell */
+    private float[] dijkstra (GridGraph graph, int start)
+    {
+        float[] dist = new float[rows * cols];
+        Arrays.fill(dist, Float.POSITIVE_INFINITY);
+        int[] neighbourCells = new int[8];
+        float[] neighbourCosts = new float[8];
+        DenseHeap heap = new DenseHeap(1024);
+
+        dist[start] = 0.0f;
+        heap.push(start, 0.0f);
+        while (!heap.isEmpty())
+        {
+            float d = heap.peekPriority();
+            int cell = heap.pop();
+            if (d > dist[cell])
+                continue;
+
+            int n = optimistic ? graph.expandTraversable(cell, neighbourCells, neighbourCosts)
+                    : graph.expand(cell, neighbourCells, neighbourCosts);
+            for (int k = 0; k < n; k++)
+            {
+                float nd = d + neighbourCosts[k];
+                if (nd < dist[neighbourCells[k]])
+                {
+                    dist[neighbourCells[k]] = nd;
+                    heap.push(neighbourCells[k], nd);
+                }
+            }
+        }
+        return dist;
+    }
+
+
+    private boolean traversable (GridMap map, int cell)
+    {
+        int x = cell / cols, y = cell % cols;
+        return optimistic ? !map.isObstacle(x, y) : map.isFree(x, y);
+    }
+
+
+    /* Checksum of the cells that can not be traversed (the only ones the tables depend on) */
+    public static long checksum (GridMap map, boolean optimistic)
+    {
+        long hash = 1125899906842597L;
+        for (int x = 0; x < map.rows; x++)
+            for (int w = 0; w < map.bitWordsPerRow(); w++)
+            {
+                long blocked = optimistic ? map.obstacleBits(x, w) : ~map.freeBits(x, w);
+                hash = 31 * hash + blocked;
+            }
+        return hash ^ ((long) map.rows << 32 | map.cols);
+    }
+
+
+    /*
+        Save the tables into a binary file made by a header (magic number, size of the map,
+        number of landmarks, mode, checksum of the map), the landmarks, and the distances.
+    */
+    public void save (Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer header = ByteBuffer.allocate(25 + 4 * landmarks.length);
+            header.putInt(MAGIC).putInt(rows).putInt(cols).putInt(landmarks.length);
+            header.put((byte) (optimistic ? 1 : 0)).putLong(checksum);
+            for (int landmark : landmarks)
+                header.putInt(landmark);
+            header.flip();
+            writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+            for (float[] table : distances)
+                for (int i = 0; i < table.length; i += buffer.capacity() / 4)
+                {
+                    buffer.clear();
+                    int n = Math.min(buffer.capacity() / 4, table.length - i);
+                    buffer.asFloatBuffer().put(table, i, n);
+                    buffer.limit(n * 4);
+                    writeFully(channel, buffer);
+                }
+        }
+    }
+
+
+    /* Load the tables saved for a map (an exception is raised if they refer to a different map) */
+    public static LandmarkHeuristic load (Path file, GridMap map) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            ByteBuffer header = ByteBuffer.allocate(25);
+            readFully(channel, header);
+            if (header.getInt() != MAGIC)
+                throw new IOException("Not a landmark tables file: " + file);
+
+            int rows = header.getInt(), cols = header.getInt(), k = header.getInt();
+            boolean optimistic = header.get() == 1;
+            long checksum = header.getLong();
+            if (rows != map.rows || cols != map.cols || checksum != checksum(map, optimistic))
+                throw new IOException("The landmark tables " + file + " refer to a different map");
+
+            LandmarkHeuristic heuristic = new LandmarkHeuristic(rows, cols, k, optimistic, checksum);
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(4 * k, 1 << 20));
+            buffer.limit(4 * k);
+            readFully(channel, buffer);
+            buffer.asIntBuffer().get(heuristic.landmarks);
+
+            for (int l = 0; l < k; l++)
+            {
+                float[] table = new float[rows * cols];
+                for (int i = 0; i < table.length; i += buffer.capacity() / 4)
+                {
+                    int n = Math.min(buffer.capacity() / 4, table.length - i);
+                    buffer.clear();
+                    buffer.limit(n * 4);
+                    readFully(channel, buffer);
+                    FloatBuffer floats = buffer.asFloatBuffer();
+                    floats.get(table, i, n);
+                }
+                heuristic.distances[l] = table;
+            }
+            return heuristic;
+        }
+    }
+
+
+    private static void writeFully (FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+
+    private static void readFully (FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+            if (channel.read(buffer) < 0)
+                throw new IOException("Unexpected end of the landmark tables file");
+        buffer.flip();
+    }
+
+}
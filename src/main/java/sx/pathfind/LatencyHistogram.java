@@ -0,0 +1,119 @@
+package sx.pathfind;
+
+import java.util.Arrays;
+
+
+
+public class LatencyHistogram
+{
+
+    /*
+        An instance of this class represents a histogram of latencies (in nanoseconds) with
+        a bounded relative error and a fixed memory footprint.
+
+        Latencies are grouped by their power of 2, and each power of 2 is split into 8 linear
+        sub-buckets, hence a percentile is estimated with an error lower than 12.5%. Recording
+        a latency costs a few bit operations and never allocates.
+    */
+
+    private static final int SUB_BUCKETS = 8;       // Linear sub-buckets of each power of 2
+    private static final int SUB_BITS = 3;          // log2 of SUB_BUCKETS
+
+    public long[] buckets;                          // The number of latencies into each bucket
+    public long count;                              // The number of latencies recorded
+    public long sum;                                // The sum of latencies recorded
+    public long min, max;                           // The minimum and maximum latency recorded
+
+
+    public LatencyHistogram ()
+    {
+        this.buckets = new long[64 * SUB_BUCKETS];
+        reset();
+    }
+
+
+    /* Remove all the recorded latencies */
+    public void reset ()
+    {
+        Arrays.fill(buckets, 0L);
+        count = 0L;
+        sum = 0L;
+        min = Long.MAX_VALUE;
+        max = 0L;
+    }
+
+
+    /* Record a latency */
+    public void record (long nanos)
+    {
+        if (nanos < 0L)
+            nanos = 0L;
+        buckets[bucketOf(nanos)]++;
+        count++;
+        sum += nanos;
+        min = Math.min(min, nanos);
+        max = Math.max(max, nanos);
+    }
+
+
+    public double mean ()
+    {
+        return count == 0L ? 0.0 : (double) sum / count;
+    }
+
+
+    /*
+        Estimation of a percentile (e.g., 0.99) of the recorded latencies.
+        The upper bound of the bucket containing the percentile is returned.
+    */
+    public long percentile (double p)
+    {
+        if (count == 0L)
+            return 0L;
+
+        long rank = Math.max(1L, (long) Math.ceil(p * count));
+        long seen = 0L;
+        for (int b = 0; b < buckets.length; b++)
+        {
+            seen += buckets[b];
+            if (seen >= rank)
+                return Math.min(upperBound(b), max);
+        }
+        return max;
+    }
+
+
+    /* The bucket of a latency */
+    private static int bucketOf (long nanos)
+    {
+        // Small latencies have a bucket each
+        if (nanos < SUB_BUCKETS)
+            return (int) nanos;
+
+        int power = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (power - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (power - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+
+    /* The highest latency contained by a bucket */
+    private static long upperBound (int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+
+        int power = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lower = (1L << power) + (sub << (power - SUB_BITS));
+        return lower + (1L << (power - SUB_BITS)) - 1L;
+    }
+
+
+    @Override
+    public String toString ()
+    {
+        return "count=" + count + " mean=" + (long) mean() + "ns p50=" + percentile(0.5) + "ns p99="
+                + percentile(0.99) + "ns max=" + max + "ns";
+    }
+
+}
@@ -0,0 +1,410 @@
+package sx.pathfind;
+
+import sx.GridGraph;
+import sx.GridMap;
+import sx.IntPath;
+import sx.Vec2i;
+import sx.pathfind.exceptions.NoPathFound;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+
+
+public class LazyThetaStar implements PathFinder
+{
+
+    /*
+        An instance of this class represents an implementation of the Lazy Theta* algorithm
+        presented in Nash, A., Koenig, S., & Tovey, C. (2010). Lazy Theta*: Any-angle path planning
+        and path length analysis in 3D. Proceedings of the AAAI Conference on Artificial Intelligence,
+        24(1), 147-154.
+
+        It is an A* where the parent of a position can be any position in line of sight with it
+        (i.e., all the positions crossed by the segment between their centers are free), not only
+        one of its neighbours. When a position is reached, it is assumed to be in line of sight with
+        the parent of the position it is reached from, and the line of sight is checked only when the
+        position is expanded: if it is blocked, the parent is the best neighbour already expanded.
+        In this way, a single check is done for each expanded position.
+
+        The path is made by the waypoints where the direction changes (i.e., far fewer positions
+        than a path moving between close positions) and the cost of a move is the euclidean length
+        of the segment, hence it can be converted into coordinates without being smoothed.
+
+        NOTE: A segment passing exactly through the corner of two positions does not touch them,
+        as a diagonal move between close positions.
+        NOTE: The robot moves from a waypoint to the next one at each step.
+    */
+
+    public DenseHeap heap;                          // The heap of open cells to explore
+    public Vec2i source, goal;                       // Starting and ending positions
+    public Vec2i current;                            // The current position where the robot
+
+    public Set<Vec2i> covered;                       // The set of positions covered by the robot
+    public IntPath path;                            // The current path to the goal made by waypoints
+    public LinkedList<Vec2i> positions;             // The current path unpacked by getPath (null until asked)
+    public GridMap slam;                            // The current knowledge of the environment the algorithm has
+    public GridGraph graph;                         // The graph of the grid map used to expand positions
+    public int cols;                                // The number of columns of the grid map
+    public int[] neighbourCells;                    // Buffer of the neighbours of the expanded positions
+    public float[] neighbourCosts;                  // Buffer of the costs to reach the neighbours (not used)
+
+    public int[] parent;                            // Parent of each cell (any cell in line of sight, -1 if none)
+    public float[] cost;                            // Minimum distance found so far from the robot position to each cell
+    public int[] seen;                              // Generation in which parent and cost of a cell were set
+    public int[] closed;                            // Generation in which a cell has been expanded
+    public int generation;                          // The current search generation
+    public long lineOfSightChecks;                  // Number of lines of sight checked by the last search
+
+    public PathFinderMetrics metrics;               // Listener of the work done by the algorithm (null if disabled)
+
+    // Logger time stamp format
+    public SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
+
+
+    public LazyThetaStar (Vec2i source, Vec2i goal, int[][] slam)
+    {
+        this(source, goal, new GridMap(slam));
+    }
+
+
+    public LazyThetaStar (Vec2i source, Vec2i goal, GridMap slam)
+    {
+        this.source = source;
+        this.goal = goal;
+        this.current = source;
+        this.slam = slam;
+        this.graph = new GridGraph(slam);
+        this.cols = slam.cols;
+        this.neighbourCells = new int[8];
+        this.neighbourCosts = new float[8];
+
+        this.path = new IntPath();
+        this.covered = new HashSet<>();
+
+        int size = slam.rows * cols;
+        this.parent = new int[size];
+        this.cost = new float[size];
+        this.seen = new int[size];
+        this.closed = new int[size];
+        this.heap = new DenseHeap(1024);
+
+        // Generation 0 is the value of untouched cells
+        this.generation = 0;
+        reset();
+    }
+
+
+    /*
+        This method reset the computed path after a change in the environment
+        and prepare the algorithm to a further path computation.
+        NOTE: The arrays are not cleared, the generation is just moved forward.
+    */
+    public void reset ()
+    {
+        if (++generation == Integer.MAX_VALUE)
+        {
+            // Stamps overflow (i.e., almost never): clear them once and restart
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+        heap.clear();
+        lineOfSightChecks = 0L;
+    }
+
+
+    /* The euclidean distance between two cells */
+    public float distance (int a, int b)
+    {
+        int dx = a / cols - b / cols, dy = a % cols - b % cols;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+
+    /*
+        True if all the positions crossed by the segment between the centers of two positions
+        are free (the first position excluded, since the robot may be on an unknown one).
+    */
+    public boolean lineOfSight (int from, int to)
+    {
+        lineOfSightChecks++;
+        int x = from / cols, y = from % cols;
+        int x1 = to / cols, y1 = to % cols;
+        int dx = Math.abs(x1 - x), dy = Math.abs(y1 - y);
+        int stepX = x1 > x ? 1 : -1, stepY = y1 > y ? 1 : -1;
+        int error = dx - dy;
+        dx *= 2;
+        dy *= 2;
+
+        // Walk the positions crossed by the segment, moving diagonally when it crosses a corner
+        while (x != x1 || y != y1)
+        {
+            if (error > 0)
+            {
+                x += stepX;
+                error -= dy;
+            }
+            else if (error < 0)
+            {
+                y += stepY;
+                error += dx;
+            }
+            else
+            {
+                x += stepX;
+                y += stepY;
+                error += dx - dy;
+            }
+            if (!slam.isFree(x, y))
+                return false;
+        }
+        return true;
+    }
+
+
+    /* Initialise the values of a cell the first time it is met in the current generation */
+    private void touch (int cell)
+    {
+        if (seen[cell] == generation)
+            return;
+        seen[cell] = generation;
+        parent[cell] = -1;
+        cost[cell] = Float.POSITIVE_INFINITY;
+    }
+
+
+    /*
+        Check the line of sight between an expanded cell and its parent, and if it is
+        blocked, take as parent the neighbour already expanded closest to the source.
+    */
+    private void setVertex (int cell)
+    {
+        int p = parent[cell];
+        if (p == cell || lineOfSight(p, cell))
+            return;
+
+        parent[cell] = -1;
+        cost[cell] = Float.POSITIVE_INFINITY;
+        int n = graph.expandAll(cell, neighbourCells, neighbourCosts);
+        for (int k = 0; k < n; k++)
+        {
+            int neighbour = neighbourCells[k];
+            if (closed[neighbour] != generation)
+                continue;
+            float ncost = cost[neighbour] + distance(neighbour, cell);
+            if (ncost < cost[cell])
+            {
+                cost[cell] = ncost;
+                parent[cell] = neighbour;
+            }
+        }
+    }
+
+
+    /* Forward search from the current robot position until the goal is expanded */
+    public void search ()
+    {
+        int goalCell = goal.x * cols + goal.y;
+        int start = current.x * cols + current.y;
+
+        // Moving from an obstacle is not possible
+        if (slam.isObstacle(current.x, current.y))
+            return;
+
+        // Start expanding the current robot position
+        touch(start);
+        cost[start] = 0.0f;
+        parent[start] = start;
+        heap.push(start, distance(start, goalCell));
+        if (metrics != null)
+            metrics.heapPush();
+
+        while (!heap.isEmpty())
+        {
+            int cell = heap.pop();
+            if (metrics != null)
+                metrics.heapPop();
+
+            // Skip bad paths enqueued before finding a shorter one
+            if (closed[cell] == generation)
+                continue;
+            setVertex(cell);
+            closed[cell] = generation;
+            if (metrics != null)
+                metrics.nodeExpanded();
+
+            if (cell == goalCell)
+                break;
+
+            // The neighbours are assumed in line of sight with the parent of the cell
+            int p = parent[cell];
+            int n = graph.expand(cell, neighbourCells, neighbourCosts);
+            for (int k = 0; k < n; k++)
+            {
+                int neighbour = neighbourCells[k];
+                if (closed[neighbour] == generation)
+                    continue;
+                touch(neighbour);
+                float ncost = cost[p] + distance(p, neighbour);
+                if (ncost < cost[neighbour])
+                {
+                    cost[neighbour] = ncost;
+                    parent[neighbour] = p;
+                    heap.push(neighbour, ncost + distance(neighbour, goalCell));
+                    if (metrics != null)
+                        metrics.heapPush();
+                }
+            }
+        }
+    }
+
+
+    /*
+        Backward reconstruction of the waypoints from current robot
+        position to goal position.
+    */
+    @Override
+    public void extractPath () throws NoPathFound
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            int goalCell = goal.x * cols + goal.y;
+
+            // Path not found
+            if (closed[goalCell] != generation || cost[goalCell] == Float.POSITIVE_INFINITY)
+                throw new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found");
+
+            IntPath path = new IntPath();
+            int cell = goalCell;
+            path.add(cell / cols, cell % cols);
+            while (parent[cell] != cell)
+            {
+                cell = parent[cell];
+                path.add(cell / cols, cell % cols);
+            }
+            path.reverse();
+            this.path = path;
+            this.positions = null;
+
+            if (metrics != null)
+                metrics.pathLength(path.size());
+        } finally {
+            if (metrics != null)
+                metrics.extractPathLatency(System.nanoTime() - start);
+        }
+    }
+
+
+    @Override
+    public void computePath ()
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            reset();
+            search();
+            extractPath();
+        } catch (NoPathFound ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            if (metrics != null)
+                metrics.computePathLatency(System.nanoTime() - start);
+        }
+    }
+
+
+    @Override
+    public void computeStartingPath ()
+    {
+        computePath();
+    }
+
+
+    /*
+        Method used to update the SLAM (i.e., the view the robot has
+        of the environment).
+    */
+    @Override
+    public void updateSlam (Vec2i position, int value)
+    {
+        slam.set(position.x, position.y, value);
+    }
+
+
+    /* Inform the algorithm that the robot is doing a step to the goal (i.e., to the next waypoint) */
+    @Override
+    public void step ()
+    {
+        // Arrived
+        if (current.equals(goal))
+            return;
+        // Next step (the cursor of the path is moved, the positions are not)
+        path.advance();
+        if (positions != null)
+            positions.removeFirst();
+        current = path.getFirst();
+        covered.add(current);
+    }
+
+
+    @Override
+    public void setMetrics (PathFinderMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+
+    /*
+        The paths are usually shorter than the minimum paths moving between close positions,
+        but they are not always the shortest any-angle paths, and no bound is known.
+    */
+    @Override
+    public float getSuboptimalityBound ()
+    {
+        return Float.POSITIVE_INFINITY;
+    }
+
+
+    /* The length of the current path */
+    public float pathCost ()
+    {
+        float length = 0.0f;
+        for (int i = 1; i < path.size(); i++)
+        {
+            int dx = path.x(i) - path.x(i - 1), dy = path.y(i) - path.y(i - 1);
+            length += (float) Math.sqrt(dx * dx + dy * dy);
+        }
+        return length;
+    }
+
+
+    /* Return the robot current position known by the algorithm */
+    @Override
+    public Vec2i getCurrent ()
+    {
+        return current;
+    }
+
+
+    /*
+        Method to return the currently considered path.
+        The path is unpacked at the first call, then the same list is returned (and moved
+        forward by step) until a new path is computed.
+    */
+    @Override
+    public LinkedList<Vec2i> getPath ()
+    {
+        if (positions == null)
+            positions = path.toLinkedList();
+        return positions;
+    }
+
+
+    /* Method to return a read-only view of the currently considered path */
+    @Override
+    public IntPath getIntPath ()
+    {
+        return path.view();
+    }
+
+}
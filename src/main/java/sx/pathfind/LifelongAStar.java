@@ -0,0 +1,365 @@
+package sx.pathfind;
+
+import sx.GridGraph;
+import sx.GridMap;
+import sx.Vec2i;
+import sx.pathfind.exceptions.NoPathFound;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+
+
+public class LifelongAStar implements PathFinder
+{
+
+    /*
+        An instance of this class represents an implementation of the Lifelong Planning A*
+        algorithm presented in Koenig, S., Likhachev, M., & Furcy, D. (2004). Lifelong planning A*.
+        Artificial Intelligence, 155(1-2), 93-146.
+
+        It is an incremental version of the forward A*: the distances from the robot position (g)
+        and their one-step lookahead (rhs) are kept between the path computations, hence after a
+        change of the environment only the positions whose distance is affected by the change are
+        expanded again, instead of replanning from scratch as AStar does.
+
+        The moves are the same of AStar (i.e., moving into free positions from any position that
+        is not an obstacle), hence the paths found have the same cost.
+
+        NOTE: The distances are relative to the position of the robot when they were computed.
+        When the robot moves, the next path computation starts again from scratch (for a robot
+        replanning at every step, see DStar, which searches backward from the goal).
+    */
+
+    private static final float EPSILON = 1e-3f;    // Tolerance on the sums of float costs when comparing the keys
+
+    public IndexedHeap heap;                        // The heap of inconsistent positions, indexed by cell (x * cols + y)
+    public Vec2i source, goal;                       // Starting and ending positions
+    public Vec2i current;                            // The current position where the robot
+    public int root;                                // The cell the distances are computed from (-1 if none)
+
+    public Set<Vec2i> covered;                       // The set of positions covered by the robot
+    public LinkedList<Vec2i> path;                   // The current minimum path to the goal
+    public GridMap slam;                            // The current knowledge of the environment the algorithm has
+    public GridGraph graph;                         // The graph of the grid map used to expand positions
+    public int cols;                                // The number of columns of the grid map
+    public int[] neighbourCells, predCells;         // Buffers of the neighbours of the expanded positions
+    public float[] neighbourCosts, predCosts;       // Buffers of the costs to reach the neighbours
+    public float[] g;                               // The distance of each cell from the root
+    public float[] rhs;                             // The one-step lookahead of the distance of each cell from the root
+
+    public PathFinderMetrics metrics;               // Listener of the work done by the algorithm (null if disabled)
+
+    // Logger time stamp format
+    public SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
+
+
+    public LifelongAStar (Vec2i source, Vec2i goal, int[][] slam)
+    {
+        this(source, goal, new GridMap(slam));
+    }
+
+
+    public LifelongAStar (Vec2i source, Vec2i goal, GridMap slam)
+    {
+        this.source = source;
+        this.goal = goal;
+        this.current = source;
+        this.root = -1;
+        this.slam = slam;
+        this.graph = new GridGraph(slam);
+        this.cols = slam.cols;
+
+        this.neighbourCells = new int[8];
+        this.neighbourCosts = new float[8];
+        this.predCells = new int[8];
+        this.predCosts = new float[8];
+
+        int size = slam.rows * cols;
+        this.heap = new IndexedHeap(size);
+        this.g = new float[size];
+        this.rhs = new float[size];
+        this.path = new LinkedList<>();
+        this.covered = new HashSet<>();
+    }
+
+
+    /* Forget the distances and start computing them from the current robot position */
+    public void reset ()
+    {
+        heap.clear();
+        Arrays.fill(g, Float.POSITIVE_INFINITY);
+        Arrays.fill(rhs, Float.POSITIVE_INFINITY);
+
+        root = current.x * cols + current.y;
+        rhs[root] = 0.0f;
+        heap.put(root, key1(root), key2(root));
+        if (metrics != null)
+            metrics.heapPush();
+    }
+
+
+    /* Compute the first level of the priority associated with a cell */
+    public float key1 (int cell)
+    {
+        return Math.min(g[cell], rhs[cell]) + JumpPointSearch.octile(cell / cols, cell % cols, goal.x, goal.y);
+    }
+
+
+    /* Compute the second level of the priority associated with a cell */
+    public float key2 (int cell)
+    {
+        return Math.min(g[cell], rhs[cell]);
+    }
+
+
+    /* The minimum among the costs to reach a cell passing by each of its predecessors */
+    public float minPredecessor (int cell)
+    {
+        if (metrics != null)
+            metrics.rhsRecomputation();
+
+        // Moving into a position that is not free is not possible
+        if (!slam.isFree(cell / cols, cell % cols))
+            return Float.POSITIVE_INFINITY;
+
+        // Moving from an obstacle is not possible
+        float min = Float.POSITIVE_INFINITY;
+        int n = graph.expandAll(cell, predCells, predCosts);
+        for (int k = 0; k < n; k++)
+            if (!slam.isObstacle(predCells[k] / cols, predCells[k] % cols))
+                min = Math.min(min, predCosts[k] + g[predCells[k]]);
+        return min;
+    }
+
+
+    /* Recompute the RHS of a cell and update its position into the heap */
+    public void updateVertex (int cell)
+    {
+        if (cell != root)
+            rhs[cell] = minPredecessor(cell);
+
+        // Inconsistent positions are inserted into the heap or their priority is updated,
+        // while consistent ones are removed
+        if (g[cell] != rhs[cell])
+        {
+            if (metrics != null)
+            {
+                if (heap.contains(cell)) metrics.heapUpdate();
+                else metrics.heapPush();
+            }
+            heap.put(cell, key1(cell), key2(cell));
+        }
+        else
+        {
+            if (metrics != null && heap.contains(cell))
+                metrics.heapRemove();
+            heap.remove(cell);
+        }
+    }
+
+
+    /* Update the successors of a cell after its distance changed */
+    private void updateSuccessors (int cell)
+    {
+        // Moving from an obstacle is not possible
+        if (slam.isObstacle(cell / cols, cell % cols))
+            return;
+        int n = graph.expand(cell, neighbourCells, neighbourCosts);
+        for (int k = 0; k < n; k++)
+            updateVertex(neighbourCells[k]);
+    }
+
+
+    /*
+        True if a key may not follow the key of the goal, considering equal the first levels
+        that only differ by the rounding of the sums of costs. The positions tied with the goal
+        are all expanded: their paths are summed in different orders, hence they may be sorted
+        wrongly into the heap and, if left inconsistent, be chosen when extracting the path.
+    */
+    private static boolean precedes (float a1, float b1)
+    {
+        return a1 <= b1 + EPSILON;
+    }
+
+
+    /* Expand the inconsistent cells until the distance of the goal is known */
+    public void search ()
+    {
+        int target = goal.x * cols + goal.y;
+        while (
+                !heap.isEmpty() &&
+                (precedes(heap.peekK1(), key1(target)) ||
+                rhs[target] != g[target])
+        ) {
+            int cell = heap.pop();
+            if (metrics != null) {
+                metrics.heapPop();
+                metrics.nodeExpanded();
+            }
+
+            if (g[cell] > rhs[cell])
+            {
+                // Overconsistent: the distance decreased
+                g[cell] = rhs[cell];
+                updateSuccessors(cell);
+            }
+            else
+            {
+                // Underconsistent: the distance increased
+                g[cell] = Float.POSITIVE_INFINITY;
+                updateVertex(cell);
+                updateSuccessors(cell);
+            }
+        }
+    }
+
+
+    /*
+        Backward reconstruction of minimum path from the goal to the current robot
+        position, moving every time to the predecessor the distance comes from.
+    */
+    @Override
+    public void extractPath () throws NoPathFound
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            int cell = goal.x * cols + goal.y;
+
+            // Path not found
+            if (g[cell] == Float.POSITIVE_INFINITY)
+                throw new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found");
+
+            LinkedList<Vec2i> path = new LinkedList<>();
+            path.addFirst(goal);
+            while (cell != root)
+            {
+                // Distances strictly decrease towards the root, hence the walk ends
+                int minCell = -1;
+                float minCost = Float.POSITIVE_INFINITY;
+                int n = graph.expandAll(cell, predCells, predCosts);
+                for (int k = 0; k < n; k++)
+                {
+                    if (slam.isObstacle(predCells[k] / cols, predCells[k] % cols))
+                        continue;
+                    float cost = g[predCells[k]] + predCosts[k];
+                    if (cost < minCost)
+                    {
+                        minCost = cost;
+                        minCell = predCells[k];
+                    }
+                }
+
+                if (minCell == -1 || g[minCell] >= g[cell])
+                    throw new NoPathFound("[" + time.format(new Date()) + "][ERROR] No path found");
+                cell = minCell;
+                path.addFirst(new Vec2i(cell / cols, cell % cols));
+            }
+            this.path = path;
+
+            if (metrics != null)
+                metrics.pathLength(path.size());
+        } finally {
+            if (metrics != null)
+                metrics.extractPathLatency(System.nanoTime() - start);
+        }
+    }
+
+
+    /*
+        Compute the minimum path to the goal, repairing the distances computed so far
+        if the robot did not move since then, or starting from scratch otherwise.
+    */
+    @Override
+    public void computePath ()
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            if (root != current.x * cols + current.y)
+                reset();
+            search();
+            extractPath();
+        } catch (NoPathFound ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            if (metrics != null)
+                metrics.computePathLatency(System.nanoTime() - start);
+        }
+    }
+
+
+    @Override
+    public void computeStartingPath ()
+    {
+        computePath();
+    }
+
+
+    /*
+        Method used to update the SLAM (i.e., the view the robot has
+        of the environment).
+    */
+    @Override
+    public void updateSlam (Vec2i position, int value)
+    {
+        long start = metrics != null ? System.nanoTime() : 0L;
+        try {
+            // No changes detected
+            if (slam.get(position.x, position.y) == value)
+                return;
+            slam.set(position.x, position.y, value);
+
+            // The distances will be computed again from scratch
+            if (root != current.x * cols + current.y)
+                return;
+
+            // The moves into and from the changed position are the only ones affected
+            int cell = position.x * cols + position.y;
+            updateVertex(cell);
+            int n = graph.expandAll(cell, neighbourCells, neighbourCosts);
+            for (int k = 0; k < n; k++)
+                updateVertex(neighbourCells[k]);
+        } finally {
+            if (metrics != null)
+                metrics.updateSlamLatency(System.nanoTime() - start);
+        }
+    }
+
+
+    /* Inform the algorithm that the robot is doing a step to the goal */
+    @Override
+    public void step ()
+    {
+        // Arrived
+        if (current.equals(goal))
+            return;
+        // Next step
+        path.removeFirst();
+        current = path.getFirst();
+        covered.add(current);
+    }
+
+
+    @Override
+    public void setMetrics (PathFinderMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+
+    /* Return the robot current position known by the algorithm */
+    @Override
+    public Vec2i getCurrent ()
+    {
+        return current;
+    }
+
+
+    /* Method to return the currently considered minimum path */
+    @Override
+    public LinkedList<Vec2i> getPath ()
+    {
+        return path;
+    }
+
+}
@@ -0,0 +1,337 @@
+package sx.pathfind;
+
+import sx.IntPath;
+import sx.Vec2i;
+
+import java.util.*;
+
+
+
+public class PathCache
+{
+
+    /*
+        An instance of this class represents a cache of the minimum paths computed between
+        couples of positions on the same map (e.g., from the dock to a shelf), so that asking
+        again for the same path does not require a new search while the map does not change
+        near it.
+
+        The paths are stored by source and goal, together with the version of the map they were
+        computed on. Every change of the map moves the version forward, and only the paths
+        affected by the change are evicted:
+            - when a position becomes not free, the paths crossing it are evicted. The paths are
+              indexed by the tiles (squares of tileSize x tileSize positions) they cross, hence
+              only the paths into the tile of the changed position are checked;
+            - when a position becomes free, a shorter path may pass by it. A path passing by the
+              position costs at least the octile distance from the source to the position plus the
+              octile distance from the position to the goal, hence only the paths whose cost is
+              greater than that (i.e., the position is inside their ellipse) are evicted. The paths
+              are also indexed by the tiles their ellipse covers, hence only the paths whose ellipse
+              covers the tile of the changed position are checked.
+
+        When the cache is full, the least recently used path is evicted.
+
+        NOTE: The costs are the lengths of the paths, hence the eviction of the paths when a position
+        becomes free is exact only if the cost of a move is never lower than its length.
+        NOTE: The cache is not thread-safe, it should be used by the thread updating the map.
+    */
+
+    public int capacity;                            // The maximum number of paths stored
+    public int tileSize;                            // The size of the side of the tiles indexing the paths
+    public int cols;                                // The number of columns of the grid map
+    public int tileCols;                            // The number of columns of tiles
+    public long version;                            // The version of the map (i.e., the number of changes seen)
+
+    public LinkedHashMap<Long, Entry> entries;      // The cached paths by source and goal, in access order
+    public Map<Integer, Set<Entry>> tiles;          // The cached paths crossing each tile
+    public Map<Integer, Set<Entry>> ellipses;       // The cached paths whose ellipse covers each tile
+
+    public long hits, misses;                       // Number of lookups that found or did not find a path
+    public long evictions;                          // Number of paths evicted because the cache was full
+    public long invalidations;                      // Number of paths evicted because of a change of the map
+
+
+    /* A cached path */
+    public static class Entry
+    {
+        public Vec2i source, goal;                  // Starting and ending positions
+        public IntPath path;                        // The minimum path from source to goal
+        public float cost;                          // The length of the path
+        public long version;                        // The version of the map the path was computed on
+        public int[] tiles;                         // The tiles crossed by the path
+        public int[] ellipse;                       // The tiles covered by the ellipse of the path
+
+        public Entry (Vec2i source, Vec2i goal, IntPath path, float cost, long version, int[] tiles, int[] ellipse)
+        {
+            this.source = source;
+            this.goal = goal;
+            this.path = path;
+            this.cost = cost;
+            this.version = version;
+            this.tiles = tiles;
+            this.ellipse = ellipse;
+        }
+    }
+
+
+    public PathCache (int cols, int capacity)
+    {
+        this(cols, capacity, 16);
+    }
+
+
+    public PathCache (int cols, int capacity, int tileSize)
+    {
+        if (capacity <= 0 || tileSize <= 0)
+            throw new IllegalArgumentException("The capacity and the tile size of a path cache must be positive");
+        this.capacity = capacity;
+        this.tileSize = tileSize;
+        this.cols = cols;
+        this.tileCols = (cols + tileSize - 1) / tileSize;
+        this.version = 0L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.tiles = new HashMap<>();
+        this.ellipses = new HashMap<>();
+    }
+
+
+    /* Remove all the paths (the counters are not reset) */
+    public void clear ()
+    {
+        entries.clear();
+        tiles.clear();
+        ellipses.clear();
+    }
+
+
+    public int size ()
+    {
+        return entries.size();
+    }
+
+
+    /* The cached path between two positions (null if not cached), marked as the most recently used */
+    public IntPath get (Vec2i source, Vec2i goal)
+    {
+        Entry entry = entries.get(key(source, goal));
+        if (entry == null)
+        {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.path.view();
+    }
+
+
+    /*
+        Store the path between two positions computed on a version of the map.
+        The path is not stored if the map changed after that version, since
+        the change may have affected it.
+    */
+    public void put (Vec2i source, Vec2i goal, IntPath path, long version)
+    {
+        if (version != this.version || path.isEmpty())
+            return;
+
+        Long key = key(source, goal);
+        Entry old = entries.remove(key);
+        if (old != null)
+            unindex(old);
+
+        // Copy the path, so that it is not affected by the robot stepping along it
+        IntPath copy = new IntPath(path.size());
+        Set<Integer> crossed = new LinkedHashSet<>();
+        float cost = 0.0f;
+        for (int i = 0; i < path.size(); i++)
+        {
+            copy.add(path.x(i), path.y(i));
+            crossed.add(tile(path.x(i), path.y(i)));
+            if (i > 0)
+                cost += (path.x(i) == path.x(i - 1) || path.y(i) == path.y(i - 1)) ? 1.0f : 1.414f;
+        }
+        int[] pathTiles = new int[crossed.size()];
+        int t = 0;
+        for (int tile : crossed)
+            pathTiles[t++] = tile;
+
+        int[] ellipse = ellipseTiles(source, goal, cost);
+
+        Entry entry = new Entry(source, goal, copy, cost, version, pathTiles, ellipse);
+        entries.put(key, entry);
+        for (int tile : pathTiles)
+            tiles.computeIfAbsent(tile, k -> new HashSet<>()).add(entry);
+        for (int tile : ellipse)
+            ellipses.computeIfAbsent(tile, k -> new HashSet<>()).add(entry);
+
+        // Evict the least recently used paths
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > capacity)
+        {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            unindex(eldest);
+            evictions++;
+        }
+    }
+
+
+    /* Inform the cache that a position of the map changed, and evict the paths it affects */
+    public void update (Vec2i position, int value)
+    {
+        version++;
+        if (value == 0)
+            invalidateFreed(position);
+        else
+            invalidateBlocked(position);
+    }
+
+
+    /* Inform the cache about many changes of the map at once */
+    public void update (Collection<CellChange> changes)
+    {
+        for (CellChange change : changes)
+            update(change.position, change.value);
+    }
+
+
+    /* Evict the paths crossing a position that is not free anymore */
+    private void invalidateBlocked (Vec2i position)
+    {
+        Set<Entry> candidates = tiles.get(tile(position.x, position.y));
+        if (candidates == null)
+            return;
+
+        List<Entry> affected = new ArrayList<>();
+        for (Entry entry : candidates)
+            for (int i = 0; i < entry.path.size(); i++)
+                if (entry.path.x(i) == position.x && entry.path.y(i) == position.y)
+                {
+                    affected.add(entry);
+                    break;
+                }
+        for (Entry entry : affected)
+            invalidate(entry);
+    }
+
+
+    /* Evict the paths that may be shortened passing by a position now free */
+    private void invalidateFreed (Vec2i position)
+    {
+        Set<Entry> candidates = ellipses.get(tile(position.x, position.y));
+        if (candidates == null)
+            return;
+
+        List<Entry> affected = new ArrayList<>();
+        for (Entry entry : candidates)
+        {
+            float bound = JumpPointSearch.octile(entry.source.x, entry.source.y, position.x, position.y) +
+                    JumpPointSearch.octile(position.x, position.y, entry.goal.x, entry.goal.y);
+            if (bound < entry.cost)
+                affected.add(entry);
+        }
+        for (Entry entry : affected)
+            invalidate(entry);
+    }
+
+
+    private void invalidate (Entry entry)
+    {
+        entries.remove(key(entry.source, entry.goal));
+        unindex(entry);
+        invalidations++;
+    }
+
+
+    /* Remove a path from the indices of the tiles */
+    private void unindex (Entry entry)
+    {
+        unindex(tiles, entry.tiles, entry);
+        unindex(ellipses, entry.ellipse, entry);
+    }
+
+
+    private static void unindex (Map<Integer, Set<Entry>> index, int[] keys, Entry entry)
+    {
+        for (int tile : keys)
+        {
+            Set<Entry> paths = index.get(tile);
+            if (paths == null)
+                continue;
+            paths.remove(entry);
+            if (paths.isEmpty())
+                index.remove(tile);
+        }
+    }
+
+
+    /*
+        The tiles that may contain a position inside the ellipse of a path (i.e., a position
+        whose octile distance from the source plus its octile distance from the goal is lower
+        than the cost). The distances from the closest positions of a tile are a lower bound
+        of the distances of any of its positions, hence no tile of the ellipse is missed.
+    */
+    private int[] ellipseTiles (Vec2i source, Vec2i goal, float cost)
+    {
+        // Bounding box of the ellipse
+        int reach = (int) Math.ceil(cost);
+        int minX = Math.max(Math.max(source.x, goal.x) - reach, 0);
+        int maxX = Math.min(source.x, goal.x) + reach;
+        int minY = Math.max(Math.max(source.y, goal.y) - reach, 0);
+        int maxY = Math.min(Math.min(source.y, goal.y) + reach, cols - 1);
+
+        int[] ellipse = new int[(maxX / tileSize - minX / tileSize + 1) * (maxY / tileSize - minY / tileSize + 1)];
+        int n = 0;
+        for (int tx = minX / tileSize; tx <= maxX / tileSize; tx++)
+        {
+            int x0 = tx * tileSize, x1 = x0 + tileSize - 1;
+            for (int ty = minY / tileSize; ty <= maxY / tileSize; ty++)
+            {
+                int y0 = ty * tileSize, y1 = y0 + tileSize - 1;
+                float bound = JumpPointSearch.octile(source.x, source.y, clamp(source.x, x0, x1), clamp(source.y, y0, y1)) +
+                        JumpPointSearch.octile(clamp(goal.x, x0, x1), clamp(goal.y, y0, y1), goal.x, goal.y);
+                if (bound < cost)
+                    ellipse[n++] = tx * tileCols + ty;
+            }
+        }
+
+        return Arrays.copyOf(ellipse, n);
+    }
+
+
+    private static int clamp (int value, int min, int max)
+    {
+        return Math.max(min, Math.min(value, max));
+    }
+
+
+    /* The fraction of lookups that found a path */
+    public float hitRate ()
+    {
+        long lookups = hits + misses;
+        return lookups == 0L ? 0.0f : (float) hits / lookups;
+    }
+
+
+    /* Reset the counters */
+    public void resetCounters ()
+    {
+        hits = 0L;
+        misses = 0L;
+        evictions = 0L;
+        invalidations = 0L;
+    }
+
+
+    private int tile (int x, int y)
+    {
+        return (x / tileSize) * tileCols + y / tileSize;
+    }
+
+
+    private long key (Vec2i source, Vec2i goal)
+    {
+        return ((long) (source.x * cols + source.y) << 32) | (goal.x * cols + goal.y);
+    }
+
+}
@@ -1,8 +1,10 @@
 package sx.pathfind;
 
+import sx.IntPath;
 import sx.Vec2i;
 import sx.pathfind.exceptions.NoPathFound;
 
+import java.util.Collection;
 import java.util.LinkedList;
 
 
@@ -20,6 +22,21 @@ public interface PathFinder
             - D* Lite (Koenig, S., & Likhachev, M. (2002). D* lite. Aaai/iaai, 15, 476-483)
             - A* (Hart, P., Nilsson, N., & Raphael, B. (1968). A Formal Basis for the Heuristic Determination of
                 Minimum Cost Paths. IEEE Transactions on Systems Science and Cybernetics, 4(2), 100–107)
+            - A* on dense arrays (DenseAStar), the search engine of A* with the path packed into a single
+                array, with the search state kept in flat primitive arrays reset in O(1) through a generation counter
+            - Jump Point Search (Harabor, D., & Grastien, A. (2011). Online graph pruning for pathfinding on grid maps.
+                AAAI, 25(1), 1114-1119), with an optional JPS+ mode using precomputed jump distances
+            - HPA* (Botea, A., Müller, M., & Schaeffer, J. (2004). Near optimal hierarchical path-finding.
+                Journal of Game Development, 1(1), 7-28), with incremental update of the abstract graph
+            - ARA* (Likhachev, M., Gordon, G. J., & Thrun, S. (2003). ARA*: Anytime A* with provable bounds on
+                sub-optimality. Advances in neural information processing systems, 16), with a time budget
+            - Bidirectional A* (Pohl, I. (1971). Bi-directional search. Machine Intelligence, 6, 127-140), with an
+                optional mode running the forward and backward searches on two threads
+            - LPA* (Koenig, S., Likhachev, M., & Furcy, D. (2004). Lifelong planning A*. Artificial Intelligence,
+                155(1-2), 93-146), an incremental forward A* repairing only the distances affected by a change
+            - D* Lite with a field of distances shared by many robots with the same goal (GoalFieldRobot)
+            - Lazy Theta* (Nash, A., Koenig, S., & Tovey, C. (2010). Lazy Theta*: Any-angle path planning and path
+                length analysis in 3D. AAAI, 24(1), 147-154), an any-angle A* returning paths made by waypoints
 
     ================================================================================================================
     */
@@ -43,6 +60,17 @@ public interface PathFinder
     void updateSlam(Vec2i position, int value);
 
 
+    /*
+        Method to update the algorithm SLAM with many changes at once (e.g., a whole sensor scan).
+        By default, changes are applied one at a time, but algorithms can coalesce them.
+     */
+    default void updateSlam(Collection<CellChange> changes)
+    {
+        for (CellChange change : changes)
+            updateSlam(change.position, change.value);
+    }
+
+
     /* Method to update the robot position and move it to the next planned position */
     void step();
 
@@ -51,7 +79,42 @@ public interface PathFinder
     Vec2i getCurrent();
 
 
-    /* Method to get the current minimum path */
+    /*
+        Method to get the current minimum path.
+        The list is owned by the algorithm: the same list is returned until a new path is
+        computed, and it is moved forward by step.
+     */
     LinkedList<Vec2i> getPath();
 
+
+    /*
+        Method to get the current minimum path packed into a single array.
+        By default, the list returned by getPath is packed at each call.
+     */
+    default IntPath getIntPath()
+    {
+        return IntPath.of(getPath());
+    }
+
+
+    /*
+        Method to get the bound of the suboptimality of the current path --i.e., its cost is
+        at most this bound times the minimum one (infinite if no bound is known).
+        The default 1 claims that the paths are optimal, hence the algorithms that do not
+        guarantee optimal paths must override it.
+     */
+    default float getSuboptimalityBound()
+    {
+        return 1.0f;
+    }
+
+
+    /*
+        Method to register a listener of the work done by the algorithm (null to disable it).
+        By default, algorithms are not instrumented and the listener is ignored.
+     */
+    default void setMetrics(PathFinderMetrics metrics)
+    {
+    }
+
 }
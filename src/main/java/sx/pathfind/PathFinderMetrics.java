@@ -0,0 +1,62 @@
+package sx.pathfind;
+
+
+
+public interface PathFinderMetrics
+{
+
+    /*
+    ================================================================================================================
+
+        Interface of the listeners informed by path finding algorithms about the work they do.
+
+        A listener is registered through PathFinder.setMetrics, and an algorithm without any
+        listener only pays a null check on its hot paths (i.e., the metrics are opt-in).
+        Latencies are expressed in nanoseconds.
+
+        NOTE: The methods are called by the thread using the algorithm, hence implementations
+        should be as cheap as possible (e.g., increment a counter).
+
+    ================================================================================================================
+    */
+
+    /* A position has been expanded */
+    void nodeExpanded();
+
+
+    /* A position has been inserted into the heap */
+    void heapPush();
+
+
+    /* A position has been extracted from the heap */
+    void heapPop();
+
+
+    /* The priority of a position into the heap has been changed */
+    void heapUpdate();
+
+
+    /* A position has been removed from the heap without being extracted */
+    void heapRemove();
+
+
+    /* The RHS of a position has been recomputed from all its successors (D* Lite) */
+    void rhsRecomputation();
+
+
+    /* A path made of the given number of positions has been extracted */
+    void pathLength(int length);
+
+
+    /* Time needed to compute a path */
+    void computePathLatency(long nanos);
+
+
+    /* Time needed to update the SLAM */
+    void updateSlamLatency(long nanos);
+
+
+    /* Time needed to extract a path */
+    void extractPathLatency(long nanos);
+
+}
@@ -1,6 +1,7 @@
 package sx.pathfind;
 
-import sx.Vec2f;
+import sx.FloatPath;
+import sx.IntPath;
 import sx.Vec2i;
 import processing.core.PApplet;
 import sx.GridToCoordinates;
@@ -9,7 +10,6 @@ import sx.pathsmoother.PathSmoother;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.LinkedList;
 
 
 
@@ -150,18 +150,19 @@ public class PathFinderTester  extends PApplet
     /* Render the current minimum path */
     public void renderPath ()
     {
-        Vec2i cNode = pathFinder.getCurrent();
-        LinkedList<Vec2i> path = pathFinder.getPath();
-        for (int i = 1; i < pathFinder.getPath().size(); i++)
+        IntPath path = pathFinder.getIntPath();
+        int cx = pathFinder.getCurrent().x, cy = pathFinder.getCurrent().y;
+        for (int i = 1; i < path.size(); i++)
         {
             stroke(0, 150, 0);
             strokeWeight(4);  // Default 4
-            float startx = cNode.x * cellSize + (float) cellSize / 2;
-            float starty = cNode.y * cellSize + (float) cellSize / 2;
-            float endx = path.get(i).x * cellSize + (float) cellSize / 2;
-            float endy = path.get(i).y * cellSize + (float) cellSize / 2;
+            float startx = cx * cellSize + (float) cellSize / 2;
+            float starty = cy * cellSize + (float) cellSize / 2;
+            float endx = path.x(i) * cellSize + (float) cellSize / 2;
+            float endy = path.y(i) * cellSize + (float) cellSize / 2;
             line(startx, starty, endx, endy);
-            cNode = path.get(i);
+            cx = path.x(i);
+            cy = path.y(i);
         }
     }
 
@@ -173,16 +174,13 @@ public class PathFinderTester  extends PApplet
             return;
 
         GridToCoordinates gtc = new GridToCoordinates((float) cellSize);
-        LinkedList<Vec2f> path = pathSmoother.smooth(gtc.convert(pathFinder.getPath()));
-        Vec2f cNode = path.getFirst();
-        float cellSizef = (float) cellSize;
+        FloatPath path = pathSmoother.smooth(gtc.convert(pathFinder.getIntPath()));
 
         for (int i = 1; i < path.size(); i++)
         {
             stroke(0, 0, 150);
             strokeWeight(4);  // Default 4
-            line(cNode.x, cNode.y, path.get(i).x, path.get(i).y);
-            cNode = path.get(i);
+            line(path.x(i - 1), path.y(i - 1), path.x(i), path.y(i));
         }
     }
 
@@ -0,0 +1,104 @@
+package sx.pathfind;
+
+import sx.GridMap;
+import sx.IntPath;
+import sx.Vec2i;
+import sx.pathfind.exceptions.NoPathFound;
+
+import java.util.LinkedList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+
+
+public class PathQueryService implements AutoCloseable
+{
+
+    /*
+        An instance of this class answers many independent (source, goal) queries
+        concurrently on the same map.
+
+        The map is copied when the service is created, and the copy is never modified,
+        so it can be shared by all the threads without synchronization. Each thread of
+        the pool owns a DenseAStar used as a reusable search workspace, hence answering a
+        query does not allocate the search arrays and threads never share mutable state.
+
+        To answer queries on an updated map, a new service should be created on the new map.
+    */
+
+    public final int[][] snapshot;                      // The immutable copy of the map shared by all the threads
+    public final GridMap map;                           // The same copy packed into the grid map searched by the workspaces
+    public final ForkJoinPool pool;                     // The pool of threads answering the queries
+    private final ThreadLocal<DenseAStar> workspaces;   // The search workspace of each thread
+
+
+    public PathQueryService (int[][] slam)
+    {
+        this(slam, Runtime.getRuntime().availableProcessors());
+    }
+
+
+    public PathQueryService (int[][] slam, int parallelism)
+    {
+        this.snapshot = new int[slam.length][];
+        for (int i = 0; i < slam.length; i++)
+            snapshot[i] = slam[i].clone();
+
+        this.map = new GridMap(snapshot);
+
+        this.pool = new ForkJoinPool(parallelism);
+        this.workspaces = ThreadLocal.withInitial(() -> new DenseAStar(new Vec2i(0, 0), new Vec2i(0, 0), map));
+    }
+
+
+    /*
+        Compute asynchronously the minimum path between two positions.
+        If no path exists, the future is completed exceptionally with NoPathFound.
+    */
+    public CompletableFuture<LinkedList<Vec2i>> query (Vec2i source, Vec2i goal)
+    {
+        return CompletableFuture.supplyAsync(() -> computePath(source, goal), pool);
+    }
+
+
+    /* Compute asynchronously the minimum path between two positions packed into a single array */
+    public CompletableFuture<IntPath> queryIntPath (Vec2i source, Vec2i goal)
+    {
+        return CompletableFuture.supplyAsync(() -> computeIntPath(source, goal), pool);
+    }
+
+
+    /* Compute the minimum path between two positions in the calling thread */
+    public LinkedList<Vec2i> computePath (Vec2i source, Vec2i goal)
+    {
+        return computeIntPath(source, goal).toLinkedList();
+    }
+
+
+    /*
+        Compute the minimum path between two positions in the calling thread, packed into a single array.
+        NOTE: The path is a new array, hence it is not overwritten by the next queries of the thread.
+    */
+    public IntPath computeIntPath (Vec2i source, Vec2i goal)
+    {
+        DenseAStar astar = workspaces.get();
+        astar.retarget(source, goal);
+        astar.search();
+        try {
+            astar.extractPath();
+        } catch (NoPathFound ex) {
+            throw new CompletionException(ex);
+        }
+        return astar.getIntPath();
+    }
+
+
+    /* Stop the threads of the service */
+    @Override
+    public void close ()
+    {
+        pool.shutdown();
+    }
+
+}
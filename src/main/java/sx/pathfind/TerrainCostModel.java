@@ -0,0 +1,62 @@
+package sx.pathfind;
+
+
+
+public class TerrainCostModel implements CostModel
+{
+
+    /*
+        An instance of this class represents a cost model built from the occupancy values
+        (0 - 100, -1 unknown) of a ROS grid map, the same grid map made binary by
+        GridMapReader.makeBinaryGridMap.
+
+        The cells whose occupancy is over the bravery are obstacles (i.e., they can not be
+        traversed), while the others are traversed with a cost growing with their occupancy:
+        every cell has a traversal factor 1 + weight * occupancy / 100, and the cost of a move
+        is its length times the average factor of the two cells. Since factors are never lower
+        than 1, the octile and euclidean heuristics remain admissible.
+
+        The factors are precomputed per cell, hence computing the cost of a move only costs
+        two array reads.
+
+        NOTE: The unknown cells are considered as traversable with the highest occupancy
+        under the bravery.
+    */
+
+    public int rows, cols;                  // The size of the grid map
+    public int bravery;                     // Over this occupancy the cells are obstacles
+    public float weight;                    // The additional cost of traversing a fully occupied cell
+    public float[] factors;                 // The traversal factor of each cell (infinite for obstacles)
+
+
+    public TerrainCostModel (int[][] grid, int bravery, float weight)
+    {
+        this.rows = grid.length;
+        this.cols = grid[0].length;
+        this.bravery = bravery;
+        this.weight = weight;
+        this.factors = new float[rows * cols];
+
+        for (int i = 0; i < rows; i++)
+            for (int j = 0; j < cols; j++)
+                setOccupancy(i, j, grid[i][j]);
+    }
+
+
+    /* Update the occupancy of a cell of the ROS grid map */
+    public void setOccupancy (int x, int y, int occupancy)
+    {
+        if (occupancy > bravery)
+            factors[x * cols + y] = Float.POSITIVE_INFINITY;
+        else
+            factors[x * cols + y] = 1.0f + weight * (occupancy < 0 ? bravery : occupancy) / 100.0f;
+    }
+
+
+    @Override
+    public float moveCost (int from, int to, float length)
+    {
+        return length * 0.5f * (factors[from] + factors[to]);
+    }
+
+}
@@ -1,11 +1,9 @@
 package sx.pathsmoother;
 
+import sx.FloatPath;
 import sx.Vec2f;
 
-import java.util.ArrayList;
 import java.util.LinkedList;
-import java.util.List;
-import java.util.stream.Collectors;
 
 
 public class GradientAscent implements PathSmoother
@@ -55,11 +53,22 @@ public class GradientAscent implements PathSmoother
     @Override
     public LinkedList<Vec2f> smooth (LinkedList<Vec2f> path)
     {
-        // Copy original path converting the grid map notation to a 2-dimensional notation
-        // (ArrayList is used instead of linked list for faster access via id)
-        List<Vec2f> newPath = new ArrayList<>();
-        for (Vec2f i : path)
-            newPath.add(i.copy());
+        return smooth(FloatPath.of(path)).toLinkedList();
+    }
+
+
+    @Override
+    public FloatPath smooth (FloatPath path)
+    {
+        // Copy original path into arrays for O(1) access via id
+        int n = path.size();
+        float[] oldX = new float[n], oldY = new float[n];
+        for (int i = 0; i < n; i++)
+        {
+            oldX[i] = path.x(i);
+            oldY[i] = path.y(i);
+        }
+        float[] newX = oldX.clone(), newY = oldY.clone();
 
         // Smoothing iterative process
         double change = Double.POSITIVE_INFINITY;
@@ -68,24 +77,21 @@ public class GradientAscent implements PathSmoother
         while (change > tolerance && counter < maxiter)
         {
             change = 0.0;
-            for (int i = 1; i < path.size() - 1; i++)
+            for (int i = 1; i < n - 1; i++)
             {
-                Vec2f position = newPath.get(i);
-                Vec2f old_position = path.get(i);
-                Vec2f prev = newPath.get(i - 1);
-                Vec2f next = newPath.get(i + 1);
-
-                position.x += alpha * ( old_position.x - position.x) + beta * (next.x - prev.x - (2 * position.x));
-                position.y += alpha * ( old_position.y - position.y) + beta * (next.y - prev.y - (2 * position.y));
+                newX[i] += alpha * (oldX[i] - newX[i]) + beta * (newX[i + 1] - newX[i - 1] - (2 * newX[i]));
+                newY[i] += alpha * (oldY[i] - newY[i]) + beta * (newY[i + 1] - newY[i - 1] - (2 * newY[i]));
 
-                change += euclidean(position, old_position);
+                change += euclidean(newX[i], newY[i], oldX[i], oldY[i]);
             }
 
             counter++;
         }
 
-        // Return smoothed path as linked list
-        return newPath.stream().collect(Collectors.toCollection(LinkedList::new));
+        FloatPath smoothed = new FloatPath(n);
+        for (int i = 0; i < n; i++)
+            smoothed.add(newX[i], newY[i]);
+        return smoothed;
     }
 
 
@@ -98,4 +104,12 @@ public class GradientAscent implements PathSmoother
     }
 
 
+    /* The euclidean distance between two coordinates given by their components */
+    public static float euclidean (float x1, float y1, float x2, float y2)
+    {
+        float dx = x1 - x2, dy = y1 - y2;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+
 }
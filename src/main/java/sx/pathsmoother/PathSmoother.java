@@ -1,5 +1,6 @@
 package sx.pathsmoother;
 
+import sx.FloatPath;
 import sx.Vec2f;
 import java.util.LinkedList;
 
@@ -22,4 +23,11 @@ public interface PathSmoother
     // Method to smooth a path
     LinkedList<Vec2f> smooth (LinkedList<Vec2f> path);
 
+
+    // Method to smooth a packed path (by default, the path is unpacked and smoothed as a list)
+    default FloatPath smooth (FloatPath path)
+    {
+        return FloatPath.of(smooth(path.toLinkedList()));
+    }
+
 }